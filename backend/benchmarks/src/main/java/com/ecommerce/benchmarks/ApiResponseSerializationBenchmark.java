@@ -0,0 +1,79 @@
+package com.ecommerce.benchmarks;
+
+import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.product.dto.ProductDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ApiResponse&lt;Page&lt;ProductDto&gt;&gt; 的 Jackson 序列化（商品列表接口的响应体）
+ * <p>
+ * ObjectMapper 配置与 Spring Boot 默认一致：注册 JavaTimeModule，日期输出为 ISO 字符串。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+    
+    @Param({"20", "100"})
+    private int pageSize;
+    
+    private ObjectMapper objectMapper;
+    
+    private ApiResponse<Page<ProductDto>> response;
+    
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<ProductDto> products = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            products.add(ProductDto.builder()
+                    .id(100000L + i)
+                    .name("商品名称-" + i)
+                    .description("这是一段用于基准测试的商品描述，长度与线上商品描述的平均值相近。".repeat(4))
+                    .categoryId((long) (i % 10))
+                    .price(new BigDecimal("199.00"))
+                    .stockQuantity(1000 + i)
+                    .status("ACTIVE")
+                    .imageUrl("https://cdn.example.com/products/" + i + ".jpg")
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        Page<ProductDto> page = new PageImpl<>(products, PageRequest.of(0, pageSize), 10000);
+        response = ApiResponse.success(page);
+    }
+    
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准入口
+ * <p>
+ * 接受与 JMH 相同的命令行参数，并固定启用 GC 分析器，使每个基准同时输出吞吐量与分配速率
+ * （gc.alloc.rate / gc.alloc.rate.norm）。
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar                # 全部基准
+ * java -jar benchmarks/target/benchmarks.jar Jwt -rf json  # 只跑 JWT，结果输出为 JSON
+ * </pre>
+ */
+public class BenchmarkRunner {
+    
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
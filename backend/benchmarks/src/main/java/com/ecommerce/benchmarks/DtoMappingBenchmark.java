@@ -0,0 +1,90 @@
+package com.ecommerce.benchmarks;
+
+import com.ecommerce.product.dto.ProductDto;
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.service.impl.ProductServiceImpl;
+import com.ecommerce.user.dto.UserDto;
+import com.ecommerce.user.entity.User;
+import com.ecommerce.user.service.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实体到 DTO 的映射（ProductServiceImpl / UserServiceImpl 的 convertToDto）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+    
+    private static final MethodHandle PRODUCT_CONVERT = BenchmarkSupport.privateMethod(
+            ProductServiceImpl.class, "convertToDto", ProductDto.class, Product.class);
+    
+    private static final MethodHandle USER_CONVERT = BenchmarkSupport.privateMethod(
+            UserServiceImpl.class, "convertToDto", UserDto.class, User.class);
+    
+    private ProductServiceImpl productService;
+    
+    private UserServiceImpl userService;
+    
+    private Product product;
+    
+    private User user;
+    
+    @Setup
+    public void setup() {
+        productService = new ProductServiceImpl();
+        userService = new UserServiceImpl();
+        
+        LocalDateTime now = LocalDateTime.now();
+        product = Product.builder()
+                .id(100000L)
+                .name("基准测试商品")
+                .description("这是一段用于基准测试的商品描述。")
+                .categoryId(1L)
+                .price(new BigDecimal("199.00"))
+                .stockQuantity(1000)
+                .status("ACTIVE")
+                .imageUrl("https://cdn.example.com/products/100000.jpg")
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        user = User.builder()
+                .id(10001L)
+                .username("benchmark-user")
+                .email("benchmark@example.com")
+                .passwordHash("$2a$10$abcdefghijklmnopqrstuuABCDEFGHIJKLMNOPQRSTUVWXYZ01234")
+                .phone("13800000000")
+                .realName("基准用户")
+                .status("ACTIVE")
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+    
+    @Benchmark
+    public ProductDto productConvertToDto() throws Throwable {
+        return (ProductDto) PRODUCT_CONVERT.invokeExact(productService, product);
+    }
+    
+    @Benchmark
+    public UserDto userConvertToDto() throws Throwable {
+        return (UserDto) USER_CONVERT.invokeExact(userService, user);
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.benchmarks;
+
+import com.ecommerce.common.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil 签发与验证
+ * <p>
+ * cached=true 衡量已验证 Token 缓存命中时的开销（稳态下的绝大多数请求），
+ * cached=false 把缓存有效期设为 0，衡量每次都做签名校验与解析的开销。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+    
+    @Param({"true", "false"})
+    private boolean cached;
+    
+    private JwtUtil jwtUtil;
+    
+    private String token;
+    
+    @Setup
+    public void setup() throws Exception {
+        jwtUtil = new JwtUtil();
+        BenchmarkSupport.setField(jwtUtil, "secret",
+                "ecommerce-microservices-secret-key-for-jwt-token-generation-and-validation");
+        BenchmarkSupport.setField(jwtUtil, "expiration", 86400000L);
+        BenchmarkSupport.setField(jwtUtil, "algorithm", "HS512");
+        BenchmarkSupport.setField(jwtUtil, "privateKeyText", "");
+        BenchmarkSupport.setField(jwtUtil, "publicKeyText", "");
+        BenchmarkSupport.setField(jwtUtil, "keyId", "ecommerce-1");
+        BenchmarkSupport.setField(jwtUtil, "jwksUri", "");
+        BenchmarkSupport.setField(jwtUtil, "jwksRefreshInterval", 300000L);
+        BenchmarkSupport.setField(jwtUtil, "cacheMaxSize", 100000L);
+        BenchmarkSupport.setField(jwtUtil, "cacheMaxTtl", cached ? 600000L : 0L);
+        jwtUtil.init();
+        token = jwtUtil.generateToken(10001L, "benchmark-user");
+    }
+    
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(10001L, "benchmark-user");
+    }
+    
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+    
+    @Benchmark
+    public Long getUserIdFromToken() {
+        return jwtUtil.getUserIdFromToken(token);
+    }
+}
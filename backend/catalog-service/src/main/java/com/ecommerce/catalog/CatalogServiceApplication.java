@@ -0,0 +1,23 @@
+package com.ecommerce.catalog;
+
+import com.ecommerce.common.exception.ErrorReporter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.Import;
+
+/**
+ * 商品目录服务启动类
+ * <p>
+ * 商品目录的非阻塞只读接口，与 product-service 读写同一张 products 表：
+ * 写操作仍由 product-service 的阻塞接口处理，浏览类读请求可以由这里以少量事件循环线程承载。
+ */
+@SpringBootApplication
+@EnableDiscoveryClient
+@Import(ErrorReporter.class)
+public class CatalogServiceApplication {
+    
+    public static void main(String[] args) {
+        SpringApplication.run(CatalogServiceApplication.class, args);
+    }
+}
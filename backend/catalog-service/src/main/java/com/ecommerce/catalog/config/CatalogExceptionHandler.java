@@ -0,0 +1,45 @@
+package com.ecommerce.catalog.config;
+
+import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.common.exception.BusinessException;
+import com.ecommerce.common.exception.ErrorReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 全局异常处理器（WebFlux）
+ * <p>
+ * common 中的 GlobalExceptionHandler 只在 Servlet 应用中注册，这里按相同的响应格式与状态码映射单独实现。
+ * 流式响应一旦开始输出，状态码已经发出，之后的错误只能中断连接。
+ */
+@RestControllerAdvice
+public class CatalogExceptionHandler {
+    
+    @Autowired
+    private ErrorReporter errorReporter;
+    
+    /**
+     * 处理业务异常
+     */
+    @ExceptionHandler(BusinessException.class)
+    public ResponseEntity<ApiResponse<?>> handleBusinessException(BusinessException ex) {
+        errorReporter.report(ex);
+        return ResponseEntity
+                .status(BusinessException.httpStatus(ex.getCode()))
+                .body(ApiResponse.fail(ex.getCode(), ex.getMessage()));
+    }
+    
+    /**
+     * 处理其他异常
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ApiResponse<?>> handleException(Exception ex) {
+        errorReporter.report(ex);
+        return ResponseEntity
+                .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.fail(500, "系统内部错误"));
+    }
+}
@@ -0,0 +1,69 @@
+package com.ecommerce.catalog.controller;
+
+import com.ecommerce.catalog.dto.CatalogProductDto;
+import com.ecommerce.catalog.dto.CatalogProductSummaryDto;
+import com.ecommerce.catalog.service.CatalogService;
+import com.ecommerce.common.dto.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 商品目录控制器（非阻塞只读）
+ * <p>
+ * 列表类接口以 application/x-ndjson 逐条输出（每行一个商品），按客户端读取速度背压到数据库游标；
+ * 请求 Accept: application/json 时输出为 JSON 数组。
+ */
+@RestController
+@RequestMapping("/api/catalog/products")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class CatalogProductController {
+    
+    @Autowired
+    private CatalogService catalogService;
+    
+    /**
+     * 获取商品详情
+     */
+    @GetMapping("/{productId}")
+    public Mono<ApiResponse<CatalogProductDto>> getProduct(@PathVariable Long productId) {
+        return catalogService.getProductById(productId)
+                .map(ApiResponse::success);
+    }
+    
+    /**
+     * 流式获取所有商品
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<CatalogProductSummaryDto> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        return catalogService.getAllProducts(cursor, limit);
+    }
+    
+    /**
+     * 流式获取分类下的商品
+     */
+    @GetMapping(value = "/category/{categoryId}",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<CatalogProductSummaryDto> getProductsByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        return catalogService.getProductsByCategory(categoryId, cursor, limit);
+    }
+    
+    /**
+     * 按商品名称流式搜索
+     */
+    @GetMapping(value = "/search",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<CatalogProductSummaryDto> searchProducts(
+            @RequestParam String keyword,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        return catalogService.searchProducts(keyword, cursor, limit);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 商品列表 DTO（字段与 product-service 的 ProductSummaryDto 一致）
+ * <p>
+ * 流式接口逐条输出，每条都带上自身位置的游标，客户端可以在任意一条之后中断并从该游标继续。
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogProductSummaryDto {
+    
+    /**
+     * 商品 ID
+     */
+    private Long id;
+    
+    /**
+     * 商品名称
+     */
+    private String name;
+    
+    /**
+     * 描述摘要
+     */
+    private String summary;
+    
+    /**
+     * 分类 ID
+     */
+    private Long categoryId;
+    
+    /**
+     * 价格
+     */
+    private BigDecimal price;
+    
+    /**
+     * 库存数量
+     */
+    private Integer stockQuantity;
+    
+    /**
+     * 商品状态
+     */
+    private String status;
+    
+    /**
+     * 商品图片 URL
+     */
+    private String imageUrl;
+    
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+    
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+    
+    /**
+     * 从这条记录之后继续读取的游标
+     */
+    private String cursor;
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.catalog.dto;
+
+import com.ecommerce.common.exception.BusinessException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 商品列表游标
+ * <p>
+ * 记录上一条记录的 (createdAt, id)，对外编码为不透明的 Base64 字符串，与 product-service 的游标格式相同。
+ */
+@Data
+@AllArgsConstructor
+public class ProductCursor {
+    
+    private static final String SEPARATOR = "|";
+    
+    /**
+     * 排序键：创建时间
+     */
+    private LocalDateTime createdAt;
+    
+    /**
+     * 同一排序键下的决胜键：商品 ID
+     */
+    private Long id;
+    
+    /**
+     * 编码游标
+     */
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * 解码游标
+     */
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            return new ProductCursor(
+                    LocalDateTime.parse(raw.substring(0, index)),
+                    Long.valueOf(raw.substring(index + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException(400, "无效的分页游标");
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.ecommerce.catalog.repository;
+
+import com.ecommerce.catalog.dto.CatalogProductDto;
+import com.ecommerce.catalog.dto.CatalogProductSummaryDto;
+import com.ecommerce.catalog.dto.ProductCursor;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 商品只读仓库（R2DBC）
+ * <p>
+ * 列表查询按 (created_at DESC, id DESC) 键集分页，命中 idx_products_created_at_id /
+ * idx_products_category_created_at_id 索引。语句设置了 fetch size，驱动按下游需求分批从游标拉取行，
+ * 客户端读得慢时数据库侧也随之暂停，不会把整个结果集缓存在内存里。
+ */
+@Repository
+public class CatalogProductRepository {
+    
+    private static final String DETAIL_COLUMNS = "id, name, description, category_id, price, stock_quantity, "
+            + "status, image_url, created_at, updated_at";
+    
+    private static final String SUMMARY_COLUMNS = "id, name, SUBSTRING(description, 1, 120) AS summary, "
+            + "category_id, price, stock_quantity, status, image_url, created_at, updated_at";
+    
+    private static final String KEYSET_ORDER = " ORDER BY created_at DESC, id DESC LIMIT :limit";
+    
+    private static final String AFTER_CURSOR = "(created_at < :createdAt OR (created_at = :createdAt AND id < :id))";
+    
+    @Autowired
+    private DatabaseClient databaseClient;
+    
+    @Value("${catalog.stream.fetch-size:100}")
+    private int fetchSize;
+    
+    /**
+     * 按 ID 查询商品详情
+     */
+    public Mono<CatalogProductDto> findById(Long productId) {
+        return databaseClient.sql("SELECT " + DETAIL_COLUMNS + " FROM products WHERE id = :id")
+                .bind("id", productId)
+                .map(CatalogProductRepository::toDetail)
+                .one();
+    }
+    
+    /**
+     * 流式查询商品列表，可按分类过滤、按名称模糊匹配
+     */
+    public Flux<CatalogProductSummaryDto> stream(Long categoryId, String keyword, ProductCursor after, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(SUMMARY_COLUMNS).append(" FROM products WHERE TRUE");
+        if (categoryId != null) {
+            sql.append(" AND category_id = :categoryId");
+        }
+        if (keyword != null) {
+            sql.append(" AND name ILIKE :keyword");
+        }
+        if (after != null) {
+            sql.append(" AND ").append(AFTER_CURSOR);
+        }
+        sql.append(KEYSET_ORDER);
+        
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .bind("limit", limit);
+        if (categoryId != null) {
+            spec = spec.bind("categoryId", categoryId);
+        }
+        if (keyword != null) {
+            spec = spec.bind("keyword", "%" + escapeLike(keyword) + "%");
+        }
+        if (after != null) {
+            spec = spec.bind("createdAt", after.getCreatedAt()).bind("id", after.getId());
+        }
+        return spec.map(CatalogProductRepository::toSummary).all();
+    }
+    
+    private static CatalogProductDto toDetail(Readable row) {
+        return CatalogProductDto.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .description(row.get("description", String.class))
+                .categoryId(row.get("category_id", Long.class))
+                .price(row.get("price", BigDecimal.class))
+                .stockQuantity(row.get("stock_quantity", Integer.class))
+                .status(row.get("status", String.class))
+                .imageUrl(row.get("image_url", String.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .build();
+    }
+    
+    private static CatalogProductSummaryDto toSummary(Readable row) {
+        Long id = row.get("id", Long.class);
+        LocalDateTime createdAt = row.get("created_at", LocalDateTime.class);
+        return CatalogProductSummaryDto.builder()
+                .id(id)
+                .name(row.get("name", String.class))
+                .summary(row.get("summary", String.class))
+                .categoryId(row.get("category_id", Long.class))
+                .price(row.get("price", BigDecimal.class))
+                .stockQuantity(row.get("stock_quantity", Integer.class))
+                .status(row.get("status", String.class))
+                .imageUrl(row.get("image_url", String.class))
+                .createdAt(createdAt)
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .cursor(new ProductCursor(createdAt, id).encode())
+                .build();
+    }
+    
+    /**
+     * 转义 LIKE 通配符，关键词按字面匹配
+     */
+    private static String escapeLike(String keyword) {
+        return keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.catalog.service;
+
+import com.ecommerce.catalog.dto.CatalogProductDto;
+import com.ecommerce.catalog.dto.CatalogProductSummaryDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 商品目录服务接口（非阻塞只读）
+ */
+public interface CatalogService {
+    
+    /**
+     * 根据 ID 获取商品详情，不存在时返回 404 业务异常
+     */
+    Mono<CatalogProductDto> getProductById(Long productId);
+    
+    /**
+     * 流式获取所有商品
+     */
+    Flux<CatalogProductSummaryDto> getAllProducts(String cursor, int limit);
+    
+    /**
+     * 流式获取分类下的商品
+     */
+    Flux<CatalogProductSummaryDto> getProductsByCategory(Long categoryId, String cursor, int limit);
+    
+    /**
+     * 按商品名称流式搜索
+     */
+    Flux<CatalogProductSummaryDto> searchProducts(String keyword, String cursor, int limit);
+}
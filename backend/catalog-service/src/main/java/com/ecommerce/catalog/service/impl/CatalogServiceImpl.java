@@ -0,0 +1,78 @@
+package com.ecommerce.catalog.service.impl;
+
+import com.ecommerce.catalog.dto.CatalogProductDto;
+import com.ecommerce.catalog.dto.CatalogProductSummaryDto;
+import com.ecommerce.catalog.dto.ProductCursor;
+import com.ecommerce.catalog.repository.CatalogProductRepository;
+import com.ecommerce.catalog.service.CatalogService;
+import com.ecommerce.catalog.stock.LiveStockReader;
+import com.ecommerce.common.exception.BusinessException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 商品目录服务实现
+ * <p>
+ * 搜索为商品名称的模糊匹配，按创建时间倒序；相关性排序的搜索仍由 product-service 的倒排索引提供。
+ */
+@Service
+public class CatalogServiceImpl implements CatalogService {
+    
+    @Autowired
+    private CatalogProductRepository catalogProductRepository;
+    
+    @Autowired
+    private LiveStockReader liveStockReader;
+    
+    /**
+     * 单次流式请求最多返回的条数
+     */
+    @Value("${catalog.stream.max-limit:10000}")
+    private int maxLimit;
+    
+    @Override
+    public Mono<CatalogProductDto> getProductById(Long productId) {
+        return catalogProductRepository.findById(productId)
+                .switchIfEmpty(Mono.error(() -> new BusinessException(404, "商品不存在")))
+                .flatMap(this::withLiveStock);
+    }
+    
+    @Override
+    public Flux<CatalogProductSummaryDto> getAllProducts(String cursor, int limit) {
+        return stream(null, null, cursor, limit);
+    }
+    
+    @Override
+    public Flux<CatalogProductSummaryDto> getProductsByCategory(Long categoryId, String cursor, int limit) {
+        return stream(categoryId, null, cursor, limit);
+    }
+    
+    @Override
+    public Flux<CatalogProductSummaryDto> searchProducts(String keyword, String cursor, int limit) {
+        if (keyword == null || keyword.isBlank()) {
+            return Flux.error(new BusinessException(400, "搜索关键词不能为空"));
+        }
+        return stream(null, keyword.trim(), cursor, limit);
+    }
+    
+    private Flux<CatalogProductSummaryDto> stream(Long categoryId, String keyword, String cursor, int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            return Flux.error(new BusinessException(400, "limit 取值范围为 1 ~ " + maxLimit));
+        }
+        // 游标解码失败时抛出 400，放在 defer 中使其作为错误信号交给异常处理
+        return Flux.defer(() -> catalogProductRepository.stream(categoryId, keyword,
+                cursor != null ? ProductCursor.decode(cursor) : null, limit));
+    }
+    
+    private Mono<CatalogProductDto> withLiveStock(CatalogProductDto productDto) {
+        if (!liveStockReader.isHot(productDto.getId())) {
+            return Mono.just(productDto);
+        }
+        return liveStockReader.available(productDto.getId())
+                .map(available -> productDto.toBuilder().stockQuantity(available).build())
+                .defaultIfEmpty(productDto);
+    }
+}
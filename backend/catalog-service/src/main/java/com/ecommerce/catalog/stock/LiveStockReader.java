@@ -0,0 +1,42 @@
+package com.ecommerce.catalog.stock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 秒杀热点商品的实时库存
+ * <p>
+ * 热点商品的库存由 product-service 的 FlashSaleStockEngine 维护在 Redis 中，数据库中的值会延迟一个刷写周期，
+ * 详情接口对这些商品改读 Redis 计数器。热点商品配置需与 product-service 保持一致。
+ */
+@Component
+public class LiveStockReader {
+    
+    @Autowired
+    private ReactiveStringRedisTemplate redisTemplate;
+    
+    @Value("${product.flash-sale.hot-product-ids:}")
+    private Set<Long> hotProductIds = new HashSet<>();
+    
+    /**
+     * 是否为热点商品
+     */
+    public boolean isHot(Long productId) {
+        return hotProductIds.contains(productId);
+    }
+    
+    /**
+     * 读取实时库存，计数器不存在时为空
+     */
+    public Mono<Integer> available(Long productId) {
+        return redisTemplate.opsForValue()
+                .get("product:flash:{" + productId + "}:stock")
+                .map(Integer::valueOf);
+    }
+}
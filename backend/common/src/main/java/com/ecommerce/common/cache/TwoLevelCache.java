@@ -0,0 +1,343 @@
+package com.ecommerce.common.cache;
+
+import com.ecommerce.common.timing.RequestTiming;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 按 Long 主键缓存 DTO 的二级缓存基类
+ * <p>
+ * L1 为进程内 Caffeine 缓存，L2 为 Redis。{@link #evict(Long)} 在事务提交后失效两级缓存，
+ * 并经 Redis 频道广播给其他副本清理各自的 L1。
+ * <p>
+ * 失效与回填的竞争：提交前已读到旧数据的请求可能在失效之后才回填，把旧数据写回缓存直到 TTL 过期。
+ * 为此每个主键带一个版本号，失效时递增；回填前先记下版本号，写入时版本号已变化则放弃写入。
+ * L1 使用进程内分段计数器，写入后复核；L2 的版本号保存在 Redis 中，由脚本比较后写入，
+ * 与失效脚本的递增互斥。L2 中的版本号同样由其他副本的失效递增，因此跨副本的回填也不会写回旧数据。
+ *
+ * @param <V> 缓存值类型，需可由 Jackson 序列化
+ */
+@Slf4j
+public abstract class TwoLevelCache<V> implements MessageListener {
+    
+    /**
+     * 本地版本号分段数，不同主键可能共用一个分段，代价只是偶尔多放弃一次回填
+     */
+    private static final int STRIPES = 1024;
+    
+    /**
+     * 版本号与写入时记下的一致才写入（KEYS: 值, 版本号; ARGV: 期望版本号, 值, TTL 毫秒）
+     */
+    static final RedisScript<Long> PUT_IF_VERSION = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[2]) or '0' "
+                    + "if current ~= ARGV[1] then return 0 end "
+                    + "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) "
+                    + "return 1",
+            Long.class);
+    
+    /**
+     * 删除值并递增版本号（KEYS: 值, 版本号; ARGV: 版本号 TTL 毫秒）
+     */
+    static final RedisScript<Long> EVICT = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1]) "
+                    + "local version = redis.call('INCR', KEYS[2]) "
+                    + "redis.call('PEXPIRE', KEYS[2], ARGV[1]) "
+                    + "return version",
+            Long.class);
+    
+    @Autowired
+    protected StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    protected ObjectMapper objectMapper;
+    
+    private final String name;
+    
+    private final String keyPrefix;
+    
+    private final String evictChannel;
+    
+    private final Class<V> valueType;
+    
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    
+    private Cache<Long, V> localCache;
+    
+    private Duration redisTtl;
+    
+    /**
+     * @param name         缓存名，用于 Server-Timing 命中统计与日志
+     * @param keyPrefix    Redis 键前缀
+     * @param evictChannel 失效广播频道
+     * @param valueType    缓存值类型
+     */
+    protected TwoLevelCache(String name, String keyPrefix, String evictChannel, Class<V> valueType) {
+        this.name = name;
+        this.keyPrefix = keyPrefix;
+        this.evictChannel = evictChannel;
+        this.valueType = valueType;
+    }
+    
+    /**
+     * 由子类在配置注入后调用
+     */
+    protected void configure(long localMaxSize, Duration localTtl, Duration redisTtl) {
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .build();
+        this.redisTtl = redisTtl;
+    }
+    
+    /**
+     * 取缓存值的主键
+     */
+    protected abstract Long idOf(V value);
+    
+    /**
+     * 回填成功后调用，子类可维护辅助索引
+     */
+    protected void afterPut(V value) {
+    }
+    
+    /**
+     * 查询缓存，依次访问 L1、L2，未命中返回 null
+     */
+    public V get(Long id) {
+        V cached = localCache.getIfPresent(id);
+        RequestTiming.cache(name + ".local", cached != null);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = generation(id);
+        try {
+            String json = redisTemplate.opsForValue().get(valueKey(id));
+            if (json != null) {
+                cached = objectMapper.readValue(json, valueType);
+                putLocal(id, cached, generation);
+            }
+        } catch (Exception e) {
+            log.warn("读取缓存失败: {}:{}, {}", name, id, e.getMessage());
+        }
+        RequestTiming.cache(name + ".redis", cached != null);
+        return cached;
+    }
+    
+    /**
+     * 查询缓存，未命中时调用 loader 加载并回填两级缓存
+     */
+    public V getOrLoad(Long id, Supplier<V> loader) {
+        V cached = get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = generation(id);
+        String version = readVersion(id);
+        V loaded = loader.get();
+        if (loaded != null) {
+            putLocal(id, loaded, generation);
+            putRedis(id, loaded, version);
+            afterPut(loaded);
+        }
+        return loaded;
+    }
+    
+    /**
+     * 批量查询缓存，L1 未命中的部分通过一次 MGET 访问 L2，仍未命中的交给 loader 一次加载并回填
+     *
+     * @return 主键到缓存值的映射，不存在的主键不在其中
+     */
+    public Map<Long, V> getAllOrLoad(Collection<Long> ids, Function<List<Long>, ? extends Collection<V>> loader) {
+        Map<Long, V> found = new HashMap<>(localCache.getAllPresent(ids));
+        List<Long> misses = ids.stream()
+                .filter(id -> !found.containsKey(id))
+                .distinct()
+                .toList();
+        if (misses.isEmpty()) {
+            return found;
+        }
+        
+        Map<Long, Long> snapshot = new HashMap<>();
+        for (Long id : misses) {
+            snapshot.put(id, generation(id));
+        }
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(misses.stream().map(this::valueKey).toList());
+            if (values != null) {
+                for (int i = 0; i < misses.size(); i++) {
+                    String json = values.get(i);
+                    if (json != null) {
+                        V cached = objectMapper.readValue(json, valueType);
+                        putLocal(misses.get(i), cached, snapshot.get(misses.get(i)));
+                        found.put(misses.get(i), cached);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("批量读取缓存失败: {}, {}", name, e.getMessage());
+        }
+        
+        List<Long> remaining = misses.stream()
+                .filter(id -> !found.containsKey(id))
+                .toList();
+        if (remaining.isEmpty()) {
+            return found;
+        }
+        Map<Long, String> versions = readVersions(remaining);
+        for (V loaded : loader.apply(remaining)) {
+            Long id = idOf(loaded);
+            Long generation = snapshot.get(id);
+            if (generation != null) {
+                putLocal(id, loaded, generation);
+                putRedis(id, loaded, versions.get(id));
+                afterPut(loaded);
+            }
+            found.put(id, loaded);
+        }
+        return found;
+    }
+    
+    /**
+     * 失效两级缓存并通知其他副本
+     * <p>
+     * 事务中调用时注册到提交之后执行：提交前失效的话，其他请求仍能读到未提交前的数据并回填，
+     * 而版本号已经递增过，回填无法被拦下。
+     */
+    public void evict(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doEvict(id);
+                }
+            });
+        } else {
+            doEvict(id);
+        }
+    }
+    
+    /**
+     * 接收其他副本的失效广播，只清理本地缓存
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            invalidateLocal(Long.valueOf(body));
+        } catch (NumberFormatException e) {
+            log.warn("无效的缓存失效消息: {}, {}", name, body);
+        }
+    }
+    
+    private void doEvict(Long id) {
+        invalidateLocal(id);
+        try {
+            redisTemplate.execute(EVICT, List.of(valueKey(id), versionKey(id)),
+                    String.valueOf(versionTtl().toMillis()));
+            redisTemplate.convertAndSend(evictChannel, String.valueOf(id));
+        } catch (Exception e) {
+            log.warn("失效缓存失败: {}:{}, {}", name, id, e.getMessage());
+        }
+    }
+    
+    private void invalidateLocal(Long id) {
+        generations.incrementAndGet(stripe(id));
+        localCache.invalidate(id);
+    }
+    
+    /**
+     * 写入 L1 后复核版本号，期间发生过失效则撤销写入
+     */
+    private void putLocal(Long id, V value, long generation) {
+        localCache.put(id, value);
+        if (generation(id) != generation) {
+            localCache.invalidate(id);
+        }
+    }
+    
+    /**
+     * 版本号未变化时写入 L2；version 为 null 表示读取版本号失败，此时不写入
+     */
+    private void putRedis(Long id, V value, String version) {
+        if (version == null) {
+            return;
+        }
+        try {
+            redisTemplate.execute(PUT_IF_VERSION, List.of(valueKey(id), versionKey(id)),
+                    version, objectMapper.writeValueAsString(value), String.valueOf(redisTtl.toMillis()));
+        } catch (Exception e) {
+            log.warn("写入缓存失败: {}:{}, {}", name, id, e.getMessage());
+        }
+    }
+    
+    private String readVersion(Long id) {
+        try {
+            String version = redisTemplate.opsForValue().get(versionKey(id));
+            return version != null ? version : "0";
+        } catch (Exception e) {
+            log.warn("读取缓存版本号失败: {}:{}, {}", name, id, e.getMessage());
+            return null;
+        }
+    }
+    
+    private Map<Long, String> readVersions(List<Long> ids) {
+        Map<Long, String> versions = new HashMap<>();
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(ids.stream().map(this::versionKey).toList());
+            if (values != null) {
+                for (int i = 0; i < ids.size(); i++) {
+                    versions.put(ids.get(i), values.get(i) != null ? values.get(i) : "0");
+                }
+            }
+        } catch (Exception e) {
+            log.warn("批量读取缓存版本号失败: {}, {}", name, e.getMessage());
+        }
+        return versions;
+    }
+    
+    private long generation(Long id) {
+        return generations.get(stripe(id));
+    }
+    
+    private static int stripe(Long id) {
+        return Math.floorMod(Long.hashCode(id), STRIPES);
+    }
+    
+    /**
+     * 值与版本号使用相同的 hash tag，保证 Cluster 下落在同一槽位，可在一个脚本中访问
+     */
+    private String valueKey(Long id) {
+        return keyPrefix + "{" + id + "}";
+    }
+    
+    private String versionKey(Long id) {
+        return keyPrefix + "{" + id + "}:ver";
+    }
+    
+    /**
+     * 版本号过期后归零，TTL 取值的两倍，远长于任何一次回填的耗时
+     */
+    private Duration versionTtl() {
+        return redisTtl.multipliedBy(2);
+    }
+}
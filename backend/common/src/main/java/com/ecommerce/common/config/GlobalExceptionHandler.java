@@ -2,7 +2,8 @@ package com.ecommerce.common.config;
 
 import com.ecommerce.common.dto.ApiResponse;
 import com.ecommerce.common.exception.BusinessException;
-import lombok.extern.slf4j.Slf4j;
+import com.ecommerce.common.exception.ErrorReporter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,20 +12,24 @@ import org.springframework.web.context.request.WebRequest;
 
 /**
  * 全局异常处理器
+ * <p>
+ * 计数与日志交给 ErrorReporter：每个异常都计数，日志按业务码采样限速。
  */
-@Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     
+    @Autowired
+    private ErrorReporter errorReporter;
+    
     /**
      * 处理业务异常
      */
     @ExceptionHandler(BusinessException.class)
     public ResponseEntity<ApiResponse<?>> handleBusinessException(
             BusinessException ex, WebRequest request) {
-        log.error("业务异常: {}", ex.getMessage(), ex);
+        errorReporter.report(ex);
         return ResponseEntity
-                .status(ex.getCode() >= 500 ? HttpStatus.INTERNAL_SERVER_ERROR : HttpStatus.BAD_REQUEST)
+                .status(BusinessException.httpStatus(ex.getCode()))
                 .body(ApiResponse.fail(ex.getCode(), ex.getMessage()));
     }
     
@@ -34,7 +39,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<?>> handleException(
             Exception ex, WebRequest request) {
-        log.error("系统异常: {}", ex.getMessage(), ex);
+        errorReporter.report(ex);
         return ResponseEntity
                 .status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.fail(500, "系统内部错误"));
@@ -0,0 +1,67 @@
+package com.ecommerce.common.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程执行模式（默认关闭，ecommerce.threads.virtual.enabled=true 开启）
+ * <p>
+ * 开启后 Tomcat 请求处理、@Async、MVC 异步请求（如商品流式导出）都运行在虚拟线程上，
+ * 阻塞在数据库 / Redis 调用上的请求不再占用平台线程，单个 Pod 可承载的并发请求数只受连接池与内存限制。
+ * <p>
+ * Spring Boot 3.1 尚不支持 spring.threads.virtual.enabled（3.2 引入），因此这里手动替换 Tomcat 执行器
+ * 与 applicationTaskExecutor。项目以 Java 17 为编译目标，虚拟线程 API 通过反射获取，
+ * 运行在 JDK 21 以下时启动失败并给出明确提示，而不是静默退回平台线程。
+ * <p>
+ * 注意：CPU 密集的 BCrypt 仍在 PasswordHasher 的有界平台线程池中执行，不受此开关影响。
+ * 锁竞争与 pinning 排查见 docs/virtual-threads.md。
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "ecommerce.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+    
+    /**
+     * 每个任务一个虚拟线程的执行器
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            log.info("虚拟线程执行模式已开启");
+            return executor;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("虚拟线程需要 JDK 21 及以上，当前为 "
+                    + Runtime.version() + "，请关闭 ecommerce.threads.virtual.enabled", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("创建虚拟线程执行器失败", e);
+        }
+    }
+    
+    /**
+     * Tomcat 请求处理线程
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+    
+    /**
+     * 替换 Spring Boot 默认的 applicationTaskExecutor，@Async 与 MVC 异步请求都使用它
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+}
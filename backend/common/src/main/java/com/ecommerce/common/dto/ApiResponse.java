@@ -30,7 +30,10 @@ public class ApiResponse<T> {
     private T data;
     
     /**
-     * 时间戳
+     * 响应生成时间（毫秒时间戳）
+     * <p>
+     * 表示响应体的生成时间而不是发送时间：预序列化缓存的响应保留首次生成时的值。
+     * 客户端需要服务器当前时间时应读取 Date 响应头。
      */
     private Long timestamp;
     
@@ -0,0 +1,42 @@
+package com.ecommerce.common.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * 已验证的 Token 身份信息（不可变，可被多个请求共享）
+ */
+@Value
+@Builder
+public class TokenPrincipal {
+    
+    /**
+     * 网关验证 Token 后向下游转发的用户 ID 请求头
+     */
+    public static final String USER_ID_HEADER = "X-User-Id";
+    
+    /**
+     * 网关验证 Token 后向下游转发的用户名请求头
+     */
+    public static final String USERNAME_HEADER = "X-Username";
+    
+    /**
+     * Token ID（jti），用于吊销
+     */
+    String jti;
+    
+    /**
+     * 用户 ID
+     */
+    Long userId;
+    
+    /**
+     * 用户名
+     */
+    String username;
+    
+    /**
+     * 过期时间（毫秒时间戳）
+     */
+    long expiresAt;
+}
@@ -2,23 +2,29 @@ package com.ecommerce.common.exception;
 
 /**
  * 业务异常
+ * <p>
+ * 业务异常表示预期内的失败（商品不存在、库存不足、认证失败等），由业务码即可定位，
+ * 默认不采集堆栈，构造开销与普通对象相当。排查问题需要堆栈时以
+ * -Decommerce.business-exception.stack-trace=true 启动。携带的 cause 仍保留自身堆栈。
  */
 public class BusinessException extends RuntimeException {
     
+    private static final boolean STACK_TRACE_ENABLED = Boolean.getBoolean("ecommerce.business-exception.stack-trace");
+    
     private Integer code;
     
     public BusinessException(String message) {
-        super(message);
+        super(message, null, false, STACK_TRACE_ENABLED);
         this.code = 500;
     }
     
     public BusinessException(Integer code, String message) {
-        super(message);
+        super(message, null, false, STACK_TRACE_ENABLED);
         this.code = code;
     }
     
     public BusinessException(Integer code, String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, STACK_TRACE_ENABLED);
         this.code = code;
     }
     
@@ -29,4 +35,17 @@ public class BusinessException extends RuntimeException {
     public void setCode(Integer code) {
         this.code = code;
     }
+    
+    /**
+     * 业务码映射为 HTTP 状态码：限流类错误需要客户端识别并退避，其余按 4xx/5xx 归类，业务码缺失时视为 500
+     */
+    public static int httpStatus(Integer code) {
+        if (code == null) {
+            return 500;
+        }
+        if (code == 429 || code == 503) {
+            return code;
+        }
+        return code >= 500 ? 500 : 400;
+    }
 }
@@ -0,0 +1,123 @@
+package com.ecommerce.common.exception;
+
+import com.ecommerce.common.ratelimit.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异常上报：计数 + 采样限速日志
+ * <p>
+ * 每个异常都计入 business.errors 计数器（标签为业务码与异常类型），日志只是补充：
+ * 客户端错误（4xx 业务码）按 1/sample-rate 采样，所有日志再按业务码 / 异常类型各自限速，
+ * 被省略的条数在下一条放行的日志中给出。爬虫批量请求不存在的 ID 时，日志量不随请求量增长。
+ */
+@Slf4j
+@Component
+public class ErrorReporter {
+    
+    public static final String METRIC_NAME = "business.errors";
+    
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+    
+    /**
+     * 客户端错误的日志采样率，N 表示每 N 条记录 1 条
+     */
+    @Value("${ecommerce.error-log.sample-rate:100}")
+    private int sampleRate;
+    
+    /**
+     * 每个业务码 / 异常类型每秒最多输出的日志条数
+     */
+    @Value("${ecommerce.error-log.max-per-second:5}")
+    private int maxPerSecond;
+    
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    
+    private final Map<String, LogState> logStates = new ConcurrentHashMap<>();
+    
+    /**
+     * 上报业务异常，业务异常默认不带堆栈，只有携带 cause 时输出 cause 的堆栈
+     */
+    public void report(BusinessException ex) {
+        int code = ex.getCode() != null ? ex.getCode() : 500;
+        count(code, ex);
+        boolean clientError = code < 500;
+        long suppressed = acquire("code:" + code, clientError ? sampleRate : 1);
+        if (suppressed < 0) {
+            return;
+        }
+        if (clientError) {
+            log.warn("业务异常: [{}] {}{}", code, ex.getMessage(), suffix(suppressed));
+        } else {
+            log.error("业务异常: [{}] {}{}", code, ex.getMessage(), suffix(suppressed), ex.getCause());
+        }
+    }
+    
+    /**
+     * 上报未处理的系统异常，限速但不采样，保留完整堆栈
+     */
+    public void report(Exception ex) {
+        count(500, ex);
+        long suppressed = acquire("exception:" + ex.getClass().getName(), 1);
+        if (suppressed < 0) {
+            return;
+        }
+        log.error("系统异常: {}{}", ex.getMessage(), suffix(suppressed), ex);
+    }
+    
+    private void count(int code, Throwable ex) {
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        String exception = ex.getClass().getSimpleName();
+        counters.computeIfAbsent(code + ":" + exception, k -> Counter.builder(METRIC_NAME)
+                .description("异常响应次数")
+                .tag("code", String.valueOf(code))
+                .tag("exception", exception)
+                .register(registry))
+                .increment();
+    }
+    
+    /**
+     * 判断本条日志是否输出：先采样、再限速
+     *
+     * @return 放行时返回此前被省略的条数，不放行时返回 -1
+     */
+    private long acquire(String key, int rate) {
+        LogState state = logStates.computeIfAbsent(key, k -> new LogState(maxPerSecond));
+        if ((rate > 1 && state.sequence.getAndIncrement() % rate != 0) || !state.bucket.tryAcquire()) {
+            state.suppressed.incrementAndGet();
+            return -1;
+        }
+        return state.suppressed.getAndSet(0);
+    }
+    
+    private static String suffix(long suppressed) {
+        return suppressed > 0 ? "（此前省略 " + suppressed + " 条同类日志）" : "";
+    }
+    
+    private static class LogState {
+        
+        private final TokenBucket bucket;
+        
+        private final AtomicLong sequence = new AtomicLong();
+        
+        private final AtomicLong suppressed = new AtomicLong();
+        
+        LogState(int permitsPerSecond) {
+            this.bucket = new TokenBucket(Math.max(1, permitsPerSecond), TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+}
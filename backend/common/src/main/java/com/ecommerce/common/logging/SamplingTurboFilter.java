@@ -0,0 +1,82 @@
+package com.ecommerce.common.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按日志类别采样的 TurboFilter
+ * <p>
+ * 对 loggers 中列出的 Logger（按名称前缀匹配）且级别不高于 level 的日志，每 rate 条只保留 1 条，
+ * 在创建日志事件之前丢弃，被丢弃的日志不产生格式化、编码与入队开销。高于 level 的日志（如 WARN / ERROR）不受影响。
+ * 在 logback-spring.xml 中为每个类别配置一个实例，例如：
+ * <pre>
+ * &lt;turboFilter class="com.ecommerce.common.logging.SamplingTurboFilter"&gt;
+ *     &lt;loggers&gt;com.ecommerce.product.controller,com.ecommerce.user.controller&lt;/loggers&gt;
+ *     &lt;level&gt;INFO&lt;/level&gt;
+ *     &lt;rate&gt;10&lt;/rate&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+    
+    private final List<String> loggerPrefixes = new ArrayList<>();
+    
+    private Level level = Level.INFO;
+    
+    private int rate = 1;
+    
+    private final AtomicLong sequence = new AtomicLong();
+    
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format 为空表示 isXxxEnabled() 判断，不计入采样
+        if (rate <= 1 || format == null || level.toInt() > this.level.toInt()) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!matches(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return sequence.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+    
+    private boolean matches(String loggerName) {
+        for (String prefix : loggerPrefixes) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Logger 名称前缀，逗号分隔
+     */
+    public void setLoggers(String loggers) {
+        for (String prefix : loggers.split(",")) {
+            if (!prefix.isBlank()) {
+                loggerPrefixes.add(prefix.trim());
+            }
+        }
+    }
+    
+    /**
+     * 参与采样的最高级别
+     */
+    public void setLevel(String level) {
+        this.level = Level.toLevel(level, Level.INFO);
+    }
+    
+    /**
+     * 采样率，N 表示每 N 条保留 1 条，1 表示不采样
+     */
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+}
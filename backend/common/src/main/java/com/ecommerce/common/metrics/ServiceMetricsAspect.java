@@ -0,0 +1,49 @@
+package com.ecommerce.common.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * 业务服务方法计时切面
+ * <p>
+ * 对 com.ecommerce 下各服务 service 包中 *Service 接口的所有方法，以及 JwtUtil 的公开方法计时，
+ * 指标名 service.method，标签为接口（类）名、方法名与异常类型。
+ * <p>
+ * 返回 {@link org.reactivestreams.Publisher}（Mono / Flux）的方法不计时：调用返回时流水线只是组装完成，
+ * 尚未订阅执行，计得的耗时没有意义。
+ */
+@Aspect
+public class ServiceMetricsAspect {
+    
+    public static final String METRIC_NAME = "service.method";
+    
+    private final MeterRegistry meterRegistry;
+    
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Around("(execution(* com.ecommerce..service.*Service.*(..)) "
+            + "&& !execution(org.reactivestreams.Publisher+ com.ecommerce..service.*Service.*(..))) "
+            + "|| execution(public * com.ecommerce.common.util.JwtUtil.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .description("业务服务方法耗时")
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecommerce.common.ratelimit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 接口限流注解，标注在控制器方法上，可重复标注以叠加多个维度的限制
+ * <p>
+ * 限流键为 SpEL 表达式，可引用方法参数与客户端 IP（#ip），例如：
+ * <ul>
+ *     <li>按 IP：{@code key = "#ip"}</li>
+ *     <li>按用户名：{@code key = "#request.username"}</li>
+ *     <li>按用户名 + IP：{@code key = "#request.username + ':' + #ip"}</li>
+ * </ul>
+ * 超出限制时抛出 429 业务异常，方法体不会执行。
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(RateLimits.class)
+public @interface RateLimit {
+    
+    /**
+     * 限流规则名称，用于区分限流键与指标标签
+     */
+    String name();
+    
+    /**
+     * 限流键（SpEL）
+     */
+    String key() default "#ip";
+    
+    /**
+     * 每个周期允许的请求数（同时也是允许的突发量）
+     */
+    int permits();
+    
+    /**
+     * 周期（秒）
+     */
+    long periodSeconds() default 60;
+    
+    /**
+     * 限流模式
+     */
+    Mode mode() default Mode.LOCAL;
+    
+    enum Mode {
+        
+        /**
+         * 进程内令牌桶，每个副本独立计数
+         */
+        LOCAL,
+        
+        /**
+         * 先过进程内令牌桶，再过 Redis 滑动窗口，限制所有副本的合计请求数；Redis 不可用时退化为 LOCAL
+         */
+        DISTRIBUTED
+    }
+}
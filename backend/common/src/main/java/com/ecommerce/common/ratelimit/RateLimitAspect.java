@@ -0,0 +1,80 @@
+package com.ecommerce.common.ratelimit;
+
+import com.ecommerce.common.exception.BusinessException;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 限流切面，在控制器方法执行之前按 {@link RateLimit} 规则判定
+ */
+@Slf4j
+@Aspect
+@Component
+public class RateLimitAspect {
+    
+    private final ExpressionParser parser = new SpelExpressionParser();
+    
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    
+    /**
+     * SpEL 解析结果缓存
+     */
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+    
+    @Autowired
+    private RateLimiter rateLimiter;
+    
+    @Around("@annotation(com.ecommerce.common.ratelimit.RateLimit) || @annotation(com.ecommerce.common.ratelimit.RateLimits)")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Set<RateLimit> rules = AnnotatedElementUtils.findMergedRepeatableAnnotations(method, RateLimit.class);
+        
+        MethodBasedEvaluationContext context = null;
+        for (RateLimit rule : rules) {
+            if (context == null) {
+                context = new MethodBasedEvaluationContext(null, method, joinPoint.getArgs(), parameterNameDiscoverer);
+                context.setVariable("ip", resolveClientIp());
+            }
+            Object key = expressions.computeIfAbsent(rule.key(), parser::parseExpression).getValue(context);
+            if (!rateLimiter.tryAcquire(rule, String.valueOf(key))) {
+                log.warn("请求被限流: {} {}", rule.name(), key);
+                throw new BusinessException(429, "请求过于频繁，请稍后再试");
+            }
+        }
+        return joinPoint.proceed();
+    }
+    
+    /**
+     * 客户端 IP：优先使用反向代理写入的 X-Real-IP（Nginx 以 $remote_addr 覆盖，客户端无法伪造），否则取连接地址
+     */
+    private String resolveClientIp() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return "unknown";
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        String realIp = request.getHeader("X-Real-IP");
+        return realIp != null && !realIp.isEmpty() ? realIp : request.getRemoteAddr();
+    }
+}
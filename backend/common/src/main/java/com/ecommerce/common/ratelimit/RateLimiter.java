@@ -0,0 +1,129 @@
+package com.ecommerce.common.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流器
+ * <p>
+ * 本地模式使用无锁令牌桶，桶按"规则名:限流键"存放在 Caffeine 中，
+ * 闲置超过 rate-limit.local.idle-timeout 或总数超过 rate-limit.local.max-keys 时淘汰，内存有界。
+ * 分布式模式在本地令牌桶之后再经过 Redis 滑动窗口（有序集合 + Lua，原子执行），
+ * 本地桶先挡住单副本上的突发流量，Redis 只承担通过本地桶的请求。
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+    
+    private static final String KEY_PREFIX = "ratelimit:";
+    
+    /**
+     * 滑动窗口：清理窗口外的记录，未超限时记录本次请求
+     * KEYS[1] 窗口键；ARGV[1] 当前时间（毫秒）、ARGV[2] 窗口长度（毫秒）、ARGV[3] 限制数、ARGV[4] 请求唯一标识
+     */
+    private static final RedisScript<Long> SLIDING_WINDOW = new DefaultRedisScript<>(
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], 0, tonumber(ARGV[1]) - tonumber(ARGV[2])) " +
+            "if redis.call('ZCARD', KEYS[1]) >= tonumber(ARGV[3]) then return 0 end " +
+            "redis.call('ZADD', KEYS[1], ARGV[1], ARGV[4]) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "return 1", Long.class);
+    
+    @Autowired
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+    
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+    
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${rate-limit.local.max-keys:100000}")
+    private long maxKeys;
+    
+    @Value("${rate-limit.local.idle-timeout:10m}")
+    private Duration idleTimeout;
+    
+    private Cache<String, TokenBucket> buckets;
+    
+    /**
+     * 规则名:结果 -> 计数器
+     */
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void init() {
+        buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+    
+    /**
+     * 按规则尝试放行一次请求
+     */
+    public boolean tryAcquire(RateLimit rule, String key) {
+        if (!enabled) {
+            return true;
+        }
+        String bucketKey = rule.name() + ":" + key;
+        TokenBucket bucket = buckets.get(bucketKey,
+                k -> new TokenBucket(rule.permits(), TimeUnit.SECONDS.toNanos(rule.periodSeconds())));
+        boolean allowed = bucket.tryAcquire();
+        if (allowed && rule.mode() == RateLimit.Mode.DISTRIBUTED) {
+            allowed = tryAcquireDistributed(rule, bucketKey);
+        }
+        record(rule.name(), allowed);
+        return allowed;
+    }
+    
+    private boolean tryAcquireDistributed(RateLimit rule, String bucketKey) {
+        StringRedisTemplate redisTemplate = redisTemplateProvider.getIfAvailable();
+        if (redisTemplate == null) {
+            return true;
+        }
+        try {
+            Long result = redisTemplate.execute(SLIDING_WINDOW, List.of(KEY_PREFIX + bucketKey),
+                    String.valueOf(System.currentTimeMillis()),
+                    String.valueOf(TimeUnit.SECONDS.toMillis(rule.periodSeconds())),
+                    String.valueOf(rule.permits()),
+                    UUID.randomUUID().toString());
+            return result == null || result == 1L;
+        } catch (Exception e) {
+            // Redis 不可用时只依赖本地令牌桶，不因限流组件故障拒绝正常请求
+            log.warn("分布式限流不可用，退化为本地限流: {}", e.getMessage());
+            return true;
+        }
+    }
+    
+    private void record(String name, boolean allowed) {
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        String result = allowed ? "allowed" : "rejected";
+        counters.computeIfAbsent(name + ":" + result, k -> Counter.builder("rate.limit.requests")
+                .description("限流判定次数")
+                .tag("name", name)
+                .tag("result", result)
+                .register(registry))
+                .increment();
+    }
+}
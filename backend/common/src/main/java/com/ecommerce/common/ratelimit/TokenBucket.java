@@ -0,0 +1,59 @@
+package com.ecommerce.common.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 无锁令牌桶
+ * <p>
+ * 采用 GCRA（通用信元速率算法）表示：只保存一个"理论到达时间"（TAT），
+ * 每次请求把 TAT 推后一个发放间隔，TAT 超前当前时间不超过桶容量对应的时长即放行。
+ * 与"令牌数 + 上次补充时间"的实现等价，但状态只有一个 long，可以用单次 CAS 更新。
+ */
+public class TokenBucket {
+    
+    /**
+     * 发放一个令牌的间隔（纳秒）
+     */
+    private final long intervalNanos;
+    
+    /**
+     * 允许 TAT 超前当前时间的最大值（纳秒），即 (容量 - 1) 个间隔
+     */
+    private final long burstToleranceNanos;
+    
+    private final AtomicLong theoreticalArrival;
+    
+    private final LongSupplier clock;
+    
+    public TokenBucket(int permits, long periodNanos) {
+        this(permits, periodNanos, System::nanoTime);
+    }
+    
+    /**
+     * 指定纳秒时钟，供测试使用
+     */
+    TokenBucket(int permits, long periodNanos, LongSupplier clock) {
+        this.intervalNanos = Math.max(1, periodNanos / permits);
+        this.burstToleranceNanos = intervalNanos * (permits - 1);
+        this.clock = clock;
+        this.theoreticalArrival = new AtomicLong(clock.getAsLong());
+    }
+    
+    /**
+     * 尝试获取一个令牌
+     */
+    public boolean tryAcquire() {
+        long now = clock.getAsLong();
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = tat - now > 0 ? tat : now;
+            if (base - now > burstToleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(tat, base + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+}
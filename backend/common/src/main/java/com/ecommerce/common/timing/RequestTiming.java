@@ -0,0 +1,136 @@
+package com.ecommerce.common.timing;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 单个请求的耗时分解
+ * <p>
+ * 由 {@link ServerTimingFilter} 在请求开始时绑定到当前线程，各埋点通过静态方法累加；
+ * 当前线程没有绑定（后台任务、异步线程、非 Web 调用）时所有方法都是空操作。
+ * 只在请求线程内读写，不需要同步。
+ */
+public final class RequestTiming {
+    
+    /**
+     * 数据库语句执行
+     */
+    public static final String DB = "db";
+    
+    /**
+     * JWT 验签
+     */
+    public static final String JWT = "jwt";
+    
+    /**
+     * 密码哈希（含线程池排队）
+     */
+    public static final String HASH = "hash";
+    
+    /**
+     * 响应体序列化
+     */
+    public static final String SERIALIZATION = "ser";
+    
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+    
+    /**
+     * 归一化 SQL 时去掉字面量，使只有参数不同的语句归为同一形状
+     */
+    private static final Pattern LITERALS = Pattern.compile("'(?:[^']|'')*'|\\b\\d+\\b");
+    
+    private final long startNanos = System.nanoTime();
+    
+    /**
+     * 类别 -> [次数, 累计纳秒]
+     */
+    private final Map<String, long[]> timings = new LinkedHashMap<>();
+    
+    /**
+     * 缓存名 -> [命中, 未命中]
+     */
+    private final Map<String, long[]> caches = new LinkedHashMap<>();
+    
+    /**
+     * SQL 形状 -> 执行次数
+     */
+    private final Map<String, Integer> statements = new HashMap<>();
+    
+    private RequestTiming() {
+    }
+    
+    static RequestTiming begin() {
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+    
+    static void end() {
+        CURRENT.remove();
+    }
+    
+    /**
+     * 当前线程是否处于被统计的请求中
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+    
+    /**
+     * 累加一段耗时
+     */
+    public static void record(String category, long nanos) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            long[] entry = timing.timings.computeIfAbsent(category, k -> new long[2]);
+            entry[0]++;
+            entry[1] += nanos;
+        }
+    }
+    
+    /**
+     * 记录一次缓存访问
+     */
+    public static void cache(String name, boolean hit) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.caches.computeIfAbsent(name, k -> new long[2])[hit ? 0 : 1]++;
+        }
+    }
+    
+    /**
+     * 记录一条即将执行的 SQL
+     */
+    public static void statement(String sql) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.statements.merge(LITERALS.matcher(sql).replaceAll("?"), 1, Integer::sum);
+        }
+    }
+    
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+    
+    Map<String, long[]> timings() {
+        return timings;
+    }
+    
+    Map<String, long[]> caches() {
+        return caches;
+    }
+    
+    Map<String, Integer> statements() {
+        return statements;
+    }
+    
+    int statementCount() {
+        int count = 0;
+        for (int n : statements.values()) {
+            count += n;
+        }
+        return count;
+    }
+}
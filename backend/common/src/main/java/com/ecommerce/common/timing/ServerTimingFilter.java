@@ -0,0 +1,183 @@
+package com.ecommerce.common.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 请求耗时分解过滤器
+ * <p>
+ * 为每个请求绑定 {@link RequestTiming}，收集 SQL 条数与数据库耗时、JWT 验签、密码哈希、序列化耗时与缓存命中情况：
+ * <ul>
+ *     <li>以 Server-Timing 响应头返回，浏览器开发者工具的 Timing 面板可直接查看。响应头在写出响应体之前添加，
+ *     因此只包含写出之前的耗时（序列化由 {@link TimingJackson2HttpMessageConverter} 先写入缓冲区再计时）；</li>
+ *     <li>请求总耗时超出预算，或同一形状的 SQL 在一个请求内执行次数达到阈值（N+1）时，输出一行 WARN 日志。</li>
+ * </ul>
+ */
+@Slf4j
+public class ServerTimingFilter extends OncePerRequestFilter {
+    
+    public static final String HEADER = "Server-Timing";
+    
+    private static final int MAX_SQL_LENGTH = 160;
+    
+    private final boolean headerEnabled;
+    
+    private final long budgetNanos;
+    
+    private final int repeatedStatementThreshold;
+    
+    public ServerTimingFilter(boolean headerEnabled, Duration budget, int repeatedStatementThreshold) {
+        this.headerEnabled = headerEnabled;
+        this.budgetNanos = budget.toNanos();
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTiming timing = RequestTiming.begin();
+        TimingResponse timingResponse = headerEnabled ? new TimingResponse(response, timing) : null;
+        try {
+            filterChain.doFilter(request, timingResponse != null ? timingResponse : response);
+        } finally {
+            if (timingResponse != null) {
+                // 没有响应体（如 304、204）时在这里补上
+                timingResponse.writeHeader();
+            }
+            RequestTiming.end();
+            report(request, response, timing);
+        }
+    }
+    
+    /**
+     * 超出预算或检测到 N+1 时输出一行日志
+     */
+    private void report(HttpServletRequest request, HttpServletResponse response, RequestTiming timing) {
+        long elapsed = timing.elapsedNanos();
+        List<String> repeated = repeatedStatements(timing);
+        if (elapsed <= budgetNanos && repeated.isEmpty()) {
+            return;
+        }
+        log.warn("请求耗时分解: {} {} status={} total={}ms {}{}",
+                request.getMethod(), request.getRequestURI(), response.getStatus(), millis(elapsed),
+                describe(timing), repeated.isEmpty() ? "" : " 疑似 N+1: " + repeated);
+    }
+    
+    private List<String> repeatedStatements(RequestTiming timing) {
+        List<String> repeated = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : timing.statements().entrySet()) {
+            if (entry.getValue() >= repeatedStatementThreshold) {
+                String sql = entry.getKey();
+                repeated.add(entry.getValue() + "x " + (sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) + "..." : sql));
+            }
+        }
+        return repeated;
+    }
+    
+    /**
+     * 日志中的耗时分解
+     */
+    private static String describe(RequestTiming timing) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("sql=").append(timing.statementCount());
+        for (Map.Entry<String, long[]> entry : timing.timings().entrySet()) {
+            builder.append(' ').append(entry.getKey()).append('=').append(millis(entry.getValue()[1])).append("ms");
+        }
+        for (Map.Entry<String, long[]> entry : timing.caches().entrySet()) {
+            builder.append(" cache.").append(entry.getKey())
+                    .append('=').append(entry.getValue()[0]).append('/').append(entry.getValue()[0] + entry.getValue()[1]);
+        }
+        return builder.toString();
+    }
+    
+    /**
+     * Server-Timing 响应头，例如：
+     * db;dur=3.2;desc="4 sql", jwt;dur=0.1, ser;dur=0.4, cache.product;desc="hit 1/1", total;dur=5.0
+     */
+    static String header(RequestTiming timing) {
+        List<String> metrics = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : timing.timings().entrySet()) {
+            String metric = entry.getKey() + ";dur=" + millis(entry.getValue()[1]);
+            if (RequestTiming.DB.equals(entry.getKey())) {
+                metric += ";desc=\"" + timing.statementCount() + " sql\"";
+            }
+            metrics.add(metric);
+        }
+        for (Map.Entry<String, long[]> entry : timing.caches().entrySet()) {
+            long hits = entry.getValue()[0];
+            metrics.add("cache." + entry.getKey() + ";desc=\"hit " + hits + "/" + (hits + entry.getValue()[1]) + "\"");
+        }
+        metrics.add("total;dur=" + millis(timing.elapsedNanos()));
+        return String.join(", ", metrics);
+    }
+    
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+    
+    /**
+     * 在响应提交（首次获取输出流）之前写入 Server-Timing
+     */
+    private static class TimingResponse extends HttpServletResponseWrapper {
+        
+        private final RequestTiming timing;
+        
+        private boolean headerWritten;
+        
+        TimingResponse(HttpServletResponse response, RequestTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+        
+        void writeHeader() {
+            if (!headerWritten && !isCommitted()) {
+                setHeader(HEADER, header(timing));
+            }
+            headerWritten = true;
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeader();
+            return super.getOutputStream();
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeader();
+            return super.getWriter();
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+        
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeader();
+            super.sendError(sc);
+        }
+        
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeader();
+            super.sendError(sc, msg);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ecommerce.common.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * 请求耗时分解自动配置（Servlet 应用，ecommerce.timing.enabled=false 关闭）
+ * <p>
+ * 注册 {@link ServerTimingFilter}、带序列化计时的 JSON 转换器，使用 Hibernate 时再注册语句检查器与会话事件监听器。
+ */
+@AutoConfiguration(before = HttpMessageConvertersAutoConfiguration.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "ecommerce.timing.enabled", havingValue = "true", matchIfMissing = true)
+public class TimingAutoConfiguration {
+    
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(
+            @Value("${ecommerce.timing.header-enabled:false}") boolean headerEnabled,
+            @Value("${ecommerce.timing.budget:500ms}") Duration budget,
+            @Value("${ecommerce.timing.repeated-statement-threshold:10}") int repeatedStatementThreshold) {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(
+                new ServerTimingFilter(headerEnabled, budget, repeatedStatementThreshold));
+        // 尽量靠前，使总耗时覆盖其余过滤器
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+    
+    /**
+     * 替换 Spring Boot 默认的 MappingJackson2HttpMessageConverter
+     */
+    @Bean
+    public TimingJackson2HttpMessageConverter timingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+            @Value("${ecommerce.timing.header-enabled:false}") boolean headerEnabled) {
+        return new TimingJackson2HttpMessageConverter(objectMapper, headerEnabled);
+    }
+    
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass({StatementInspector.class, HibernatePropertiesCustomizer.class})
+    static class HibernateTimingConfiguration {
+        
+        @Bean
+        public HibernatePropertiesCustomizer timingHibernatePropertiesCustomizer() {
+            return properties -> {
+                properties.put(AvailableSettings.STATEMENT_INSPECTOR, new TimingStatementInspector());
+                properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, TimingSessionEventListener.class.getName());
+            };
+        }
+    }
+}
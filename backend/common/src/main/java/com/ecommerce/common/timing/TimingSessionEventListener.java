@@ -0,0 +1,36 @@
+package com.ecommerce.common.timing;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * 统计请求内 Hibernate 执行 JDBC 语句与批量语句的耗时
+ * <p>
+ * 每个 Session 一个实例，Session 不跨线程使用，因此开始时间用普通字段保存。
+ * JdbcTemplate 等绕过 Hibernate 的访问不在统计范围内。
+ */
+public class TimingSessionEventListener implements SessionEventListener {
+    
+    private long statementStart;
+    
+    private long batchStart;
+    
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestTiming.record(RequestTiming.DB, System.nanoTime() - statementStart);
+    }
+    
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestTiming.record(RequestTiming.DB, System.nanoTime() - batchStart);
+    }
+}
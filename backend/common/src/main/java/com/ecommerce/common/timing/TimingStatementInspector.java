@@ -0,0 +1,15 @@
+package com.ecommerce.common.timing;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 记录请求内 Hibernate 生成的每条 SQL，用于语句计数与 N+1 检测，不修改 SQL
+ */
+public class TimingStatementInspector implements StatementInspector {
+    
+    @Override
+    public String inspect(String sql) {
+        RequestTiming.statement(sql);
+        return sql;
+    }
+}
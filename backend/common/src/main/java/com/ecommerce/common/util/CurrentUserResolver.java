@@ -0,0 +1,50 @@
+package com.ecommerce.common.util;
+
+import com.ecommerce.common.dto.TokenPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 解析当前请求的用户身份
+ * <p>
+ * 开启 security.gateway.trust-identity-headers 后，直接信任网关转发的 X-User-Id / X-Username，
+ * 不再做任何签名校验；此时服务必须只能经由网关访问（网关会剔除客户端自带的同名请求头）。
+ * 未开启或请求头缺失时，退回到校验 Authorization 中的 Bearer Token。
+ */
+@Component
+public class CurrentUserResolver {
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    @Value("${security.gateway.trust-identity-headers:false}")
+    private boolean trustIdentityHeaders;
+    
+    /**
+     * 返回当前用户身份，未登录或 Token 无效时返回 null
+     */
+    public TokenPrincipal resolve(HttpServletRequest request) {
+        if (trustIdentityHeaders) {
+            String userId = request.getHeader(TokenPrincipal.USER_ID_HEADER);
+            if (userId != null && !userId.isEmpty()) {
+                try {
+                    return TokenPrincipal.builder()
+                            .userId(Long.valueOf(userId))
+                            .username(request.getHeader(TokenPrincipal.USERNAME_HEADER))
+                            .expiresAt(Long.MAX_VALUE)
+                            .build();
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        return jwtUtil.verify(authHeader.substring(7));
+    }
+}
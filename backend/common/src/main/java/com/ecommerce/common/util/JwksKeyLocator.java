@@ -0,0 +1,125 @@
+package com.ecommerce.common.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于 JWKS 的验签公钥定位器
+ * <p>
+ * 公钥按 kid 缓存在本地，启动时同步拉取一次，之后由后台线程定期刷新。
+ * 验签路径上只读本地缓存、从不发起网络请求（网关运行在事件循环线程上，不能阻塞）；
+ * 遇到未知 kid 时拒绝该 Token 并异步触发一次刷新（受最小间隔限制），
+ * 因此签发方轮换密钥时应先发布新公钥、再用新私钥签发。
+ */
+@Slf4j
+public class JwksKeyLocator extends LocatorAdapter<Key> {
+    
+    private static final long MIN_REFRESH_INTERVAL_MS = 30_000;
+    
+    private final URI jwksUri;
+    
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(3))
+            .build();
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "jwks-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final AtomicLong lastRefreshAt = new AtomicLong();
+    
+    /**
+     * kid -> 公钥，刷新时整体替换
+     */
+    private volatile Map<String, PublicKey> keys = Map.of();
+    
+    public JwksKeyLocator(String jwksUri, long refreshIntervalMs) {
+        this.jwksUri = URI.create(jwksUri);
+        refresh();
+        refresher.scheduleWithFixedDelay(this::refresh, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    protected Key locate(JwsHeader header) {
+        String kid = header.getKeyId();
+        Map<String, PublicKey> current = keys;
+        PublicKey key = kid != null ? current.get(kid) : (current.size() == 1 ? current.values().iterator().next() : null);
+        if (key == null) {
+            long last = lastRefreshAt.get();
+            if (System.currentTimeMillis() - last >= MIN_REFRESH_INTERVAL_MS
+                    && lastRefreshAt.compareAndSet(last, System.currentTimeMillis())) {
+                refresher.execute(this::refresh);
+            }
+            throw new IllegalStateException("未知的签名密钥: " + kid);
+        }
+        return key;
+    }
+    
+    /**
+     * 拉取 JWKS 并替换本地公钥表，失败时保留旧的公钥
+     */
+    private void refresh() {
+        lastRefreshAt.set(System.currentTimeMillis());
+        try {
+            HttpRequest request = HttpRequest.newBuilder(jwksUri)
+                    .timeout(Duration.ofSeconds(5))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                log.warn("拉取 JWKS 失败: {} 返回 {}", jwksUri, response.statusCode());
+                return;
+            }
+        
+            Map<String, PublicKey> loaded = new HashMap<>();
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            for (JsonNode jwk : objectMapper.readTree(response.body()).path("keys")) {
+                if (!"RSA".equals(jwk.path("kty").asText()) || !jwk.hasNonNull("kid")) {
+                    continue;
+                }
+                BigInteger modulus = new BigInteger(1, decoder.decode(jwk.path("n").asText()));
+                BigInteger exponent = new BigInteger(1, decoder.decode(jwk.path("e").asText()));
+                loaded.put(jwk.path("kid").asText(), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+            }
+            keys = Map.copyOf(loaded);
+            log.info("JWKS 已刷新: {} 个公钥", loaded.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("拉取 JWKS 失败: {}, {}", jwksUri, e.getMessage());
+        }
+    }
+    
+    /**
+     * 停止后台刷新
+     */
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+}
@@ -1,20 +1,51 @@
 package com.ecommerce.common.util;
 
+import com.ecommerce.common.dto.TokenPrincipal;
+import com.ecommerce.common.timing.RequestTiming;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT 工具类
+ * <p>
+ * 支持两种签名方式（jwt.algorithm）：
+ * <ul>
+ *     <li>HS512：对称密钥，签发与验签都需要 jwt.secret</li>
+ *     <li>RS256：非对称密钥，只有签发方（用户服务）持有 jwt.private-key；
+ *     验签方配置 jwt.public-key，或配置 jwt.jwks-uri 从签发方拉取公钥并缓存在本地</li>
+ * </ul>
  */
 @Slf4j
 @Component
@@ -26,6 +57,136 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}")
     private Long expiration;
     
+    /**
+     * 签名算法：HS512 或 RS256
+     */
+    @Value("${jwt.algorithm:HS512}")
+    private String algorithm;
+    
+    /**
+     * RS256 私钥（PKCS#8，PEM 或 Base64），只有签发方需要配置
+     */
+    @Value("${jwt.private-key:}")
+    private String privateKeyText;
+    
+    /**
+     * RS256 公钥（X.509，PEM 或 Base64）
+     */
+    @Value("${jwt.public-key:}")
+    private String publicKeyText;
+    
+    /**
+     * RS256 密钥标识，写入 Token 头部并在 JWKS 中发布
+     */
+    @Value("${jwt.key-id:ecommerce-1}")
+    private String keyId;
+    
+    /**
+     * RS256 验签公钥的 JWKS 地址，配置后优先于 jwt.public-key
+     */
+    @Value("${jwt.jwks-uri:}")
+    private String jwksUri;
+    
+    /**
+     * JWKS 定期刷新间隔（毫秒）
+     */
+    @Value("${jwt.jwks.refresh-interval:300000}")
+    private long jwksRefreshInterval;
+    
+    /**
+     * 已验证 Token 缓存的最大条目数
+     */
+    @Value("${jwt.cache.max-size:100000}")
+    private long cacheMaxSize;
+    
+    /**
+     * 已验证 Token 缓存的最长保留时间（毫秒），实际过期时间不晚于 Token 自身的 exp
+     */
+    @Value("${jwt.cache.max-ttl:600000}")
+    private long cacheMaxTtl;
+    
+    /**
+     * Token 吊销列表，未启用 Redis 的服务中不存在
+     */
+    @Autowired(required = false)
+    private TokenRevocationList revocationList;
+    
+    private SecretKey key;
+    
+    private PrivateKey privateKey;
+    
+    private PublicKey publicKey;
+    
+    private JwksKeyLocator jwksKeyLocator;
+    
+    private JwtParser parser;
+    
+    /**
+     * Token 的 SHA-256 -> 已验证身份，条目最迟在 Token 过期时淘汰；
+     * 不以 Token 原文为键，堆转储中不会留下可直接使用的凭证
+     */
+    private Cache<String, TokenPrincipal> verifiedTokens;
+    
+    @PostConstruct
+    public void init() throws Exception {
+        // 密钥与解析器都是线程安全的，只需构建一次
+        if (isRsa()) {
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            if (!privateKeyText.isBlank()) {
+                privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decodeKey(privateKeyText)));
+            }
+            if (!publicKeyText.isBlank()) {
+                publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(decodeKey(publicKeyText)));
+            }
+            if (!jwksUri.isBlank()) {
+                jwksKeyLocator = new JwksKeyLocator(jwksUri, jwksRefreshInterval);
+                parser = Jwts.parser()
+                        .keyLocator(jwksKeyLocator)
+                        .build();
+            } else if (publicKey != null) {
+                parser = Jwts.parser()
+                        .verifyWith(publicKey)
+                        .build();
+            } else {
+                throw new IllegalStateException("RS256 需要配置 jwt.public-key 或 jwt.jwks-uri");
+            }
+        } else {
+            key = Keys.hmacShaKeyFor(secret.getBytes());
+            parser = Jwts.parser()
+                    .verifyWith(key)
+                    .build();
+        }
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, TokenPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(String tokenHash, TokenPrincipal principal, long currentTime) {
+                        long remaining = principal.getExpiresAt() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(remaining, cacheMaxTtl)));
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String tokenHash, TokenPrincipal principal,
+                                                  long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String tokenHash, TokenPrincipal principal,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        if (jwksKeyLocator != null) {
+            jwksKeyLocator.shutdown();
+        }
+    }
+    
     /**
      * 生成 JWT Token
      */
@@ -53,9 +214,23 @@ public class JwtUtil {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
         
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes());
+        if (isRsa()) {
+            if (privateKey == null) {
+                throw new IllegalStateException("未配置 jwt.private-key，当前服务不能签发 Token");
+            }
+            return Jwts.builder()
+                    .header().keyId(keyId).and()
+                    .id(UUID.randomUUID().toString())
+                    .claims(claims)
+                    .subject(subject)
+                    .issuedAt(now)
+                    .expiration(expiryDate)
+                    .signWith(privateKey, Jwts.SIG.RS256)
+                    .compact();
+        }
         
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .claims(claims)
                 .subject(subject)
                 .issuedAt(now)
@@ -65,63 +240,151 @@ public class JwtUtil {
     }
     
     /**
-     * 验证 Token
+     * 以 JWKS 格式发布验签公钥；HS512 模式下密钥不可公开，返回空集合
      */
-    public boolean validateToken(String token) { // 建议使用基本类型 boolean
+    public Map<String, Object> getJwks() {
+        if (!isRsa() || !(publicKey instanceof RSAPublicKey rsaPublicKey)) {
+            return Map.of("keys", List.of());
+        }
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "RSA");
+        jwk.put("kid", keyId);
+        jwk.put("use", "sig");
+        jwk.put("alg", "RS256");
+        jwk.put("n", toBase64Url(rsaPublicKey.getModulus()));
+        jwk.put("e", toBase64Url(rsaPublicKey.getPublicExponent()));
+        return Map.of("keys", List.of(jwk));
+    }
+    
+    private boolean isRsa() {
+        return "RS256".equalsIgnoreCase(algorithm);
+    }
+    
+    /**
+     * 解析 PEM 或纯 Base64 格式的密钥
+     */
+    private static byte[] decodeKey(String text) {
+        String base64 = text.replaceAll("-----(BEGIN|END)[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+    
+    private static String toBase64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        // 去掉 BigInteger 补码表示中的前导符号字节
+        if (bytes.length > 1 && bytes[0] == 0) {
+            byte[] trimmed = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, trimmed, 0, trimmed.length);
+            bytes = trimmed;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+    
+    /**
+     * 验证 Token 并返回身份信息，只做一次签名校验和解析；无效或已过期时返回 null
+     */
+    public TokenPrincipal verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        long start = System.nanoTime();
         try {
-            SecretKey key = Keys.hmacShaKeyFor(secret.getBytes());
-            // JJWT 0.12.x 新写法
-            Jwts.parser()
-                    .verifyWith(key) // 替换 setSigningKey
-                    .build()
-                    .parseSignedClaims(token); // 替换 parseClaimsJws
-            return true;
+            return doVerify(token);
+        } finally {
+            RequestTiming.record(RequestTiming.JWT, System.nanoTime() - start);
+        }
+    }
+    
+    private TokenPrincipal doVerify(String token) {
+        String tokenHash = sha256(token);
+        TokenPrincipal cached = verifiedTokens.getIfPresent(tokenHash);
+        RequestTiming.cache("jwt", cached != null);
+        if (cached != null) {
+            // 吊销可能发生在其他副本，命中缓存也要查吊销列表（纯内存）
+            if (cached.getExpiresAt() > System.currentTimeMillis() && !isRevoked(cached)) {
+                return cached;
+            }
+            verifiedTokens.invalidate(tokenHash);
+            return null;
+        }
+        
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
         } catch (Exception e) {
-            log.error("Token 验证失败: {}", e.getMessage());
+            // 过期或伪造的 Token 属于客户端问题，由调用方返回 401，不按错误记录
+            log.debug("Token 验证失败: {}", e.getMessage());
+            return null;
+        }
+        
+        Date expiresAt = claims.getExpiration();
+        TokenPrincipal principal = TokenPrincipal.builder()
+                .jti(claims.getId())
+                .userId(claims.get("userId", Long.class))
+                .username(claims.get("username", String.class))
+                .expiresAt(expiresAt != null ? expiresAt.getTime() : System.currentTimeMillis() + cacheMaxTtl)
+                .build();
+        if (isRevoked(principal)) {
+            return null;
+        }
+        verifiedTokens.put(tokenHash, principal);
+        return principal;
+    }
+    
+    /**
+     * 吊销 Token（如用户登出），之后所有副本验证该 Token 都会失败；返回是否吊销成功
+     * <p>
+     * 不含 jti 的旧 Token 无法吊销，只能等待其自然过期。
+     */
+    public boolean revoke(String token) {
+        TokenPrincipal principal = verify(token);
+        if (principal == null || principal.getJti() == null || revocationList == null) {
             return false;
         }
+        revocationList.revoke(principal.getJti(), principal.getExpiresAt());
+        verifiedTokens.invalidate(sha256(token));
+        return true;
+    }
+    
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private boolean isRevoked(TokenPrincipal principal) {
+        return revocationList != null && revocationList.isRevoked(principal.getJti());
     }
     
     /**
-     * 从 Token 中获取用户 ID
+     * 验证 Token
      */
-    public Long getUserIdFromToken(String token) {
-        Claims claims = getAllClaimsFromToken(token);
-        return claims.get("userId", Long.class);
+    public boolean validateToken(String token) {
+        return verify(token) != null;
     }
     
     /**
-     * 从 Token 中获取用户名
+     * 从 Token 中获取用户 ID，Token 无效、过期或已吊销时返回 null
      */
-    public String getUsernameFromToken(String token) {
-        Claims claims = getAllClaimsFromToken(token);
-        return claims.get("username", String.class);
+    public Long getUserIdFromToken(String token) {
+        TokenPrincipal principal = verify(token);
+        return principal != null ? principal.getUserId() : null;
     }
-
+    
     /**
-     * 从 Token 中获取所有声明
+     * 从 Token 中获取用户名，Token 无效、过期或已吊销时返回 null
      */
-    private Claims getAllClaimsFromToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes());
-        return Jwts.parser()                    // 0.12.x 使用 parser() 代替 parserBuilder()
-                .verifyWith(key)               // 使用 verifyWith 代替 setSigningKey
-                .build()
-                .parseSignedClaims(token)      // 使用 parseSignedClaims 代替 parseClaimsJws
-                .getPayload();                 // 使用 getPayload() 代替 getBody()
+    public String getUsernameFromToken(String token) {
+        TokenPrincipal principal = verify(token);
+        return principal != null ? principal.getUsername() : null;
     }
-
+    
     /**
      * 检查 Token 是否过期
      */
     public boolean isTokenExpired(String token) {
-        try {
-            Claims claims = getAllClaimsFromToken(token);
-            // 如果 claims 为空或 getExpiration 返回空，需要处理空指针
-            Date expiration = claims.getExpiration();
-            return expiration.before(new Date());
-        } catch (Exception e) {
-            // 解析失败或过期都会进入这里
-            return true;
-        }
+        return verify(token) == null;
     }
 }
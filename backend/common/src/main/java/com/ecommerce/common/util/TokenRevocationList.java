@@ -0,0 +1,169 @@
+package com.ecommerce.common.util;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token 吊销列表
+ * <p>
+ * 已吊销的 jti 保存在进程内：哈希表负责 O(1) 查询，按过期时间排序的跳表负责淘汰，
+ * 条目在 Token 自身的 exp 之后由后台线程清理，内存占用只与"尚未过期的已吊销 Token"数量相关。
+ * <p>
+ * 多副本同步：吊销时写入 Redis 有序集合（score 为 exp）并经频道广播，
+ * 其他副本收到广播后写入本地；启动完成后从有序集合加载一次快照，补齐启动前的吊销记录。
+ * 验签路径上只查本地哈希表，不访问 Redis。
+ */
+@Slf4j
+@Component
+public class TokenRevocationList implements MessageListener {
+    
+    /**
+     * 吊销广播频道，消息格式为 "jti:exp"
+     */
+    public static final String REVOKE_CHANNEL = "auth:token:revoked";
+    
+    private static final String REVOKED_KEY = "auth:token:revoked";
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    /**
+     * jti -> 过期时间（毫秒时间戳）
+     */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    
+    /**
+     * 按过期时间排序的吊销记录，用于淘汰
+     */
+    private final ConcurrentSkipListSet<Entry> expiryOrder = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(Entry::expiresAt).thenComparing(Entry::jti));
+    
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "token-revocation-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    public TokenRevocationList() {
+        sweeper.scheduleWithFixedDelay(this::evictExpired, 1, 1, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * 是否已吊销（纯内存查询）
+     */
+    public boolean isRevoked(String jti) {
+        return jti != null && revoked.containsKey(jti);
+    }
+    
+    /**
+     * 吊销 Token 并同步给其他副本
+     */
+    public void revoke(String jti, long expiresAt) {
+        long now = System.currentTimeMillis();
+        if (jti == null || expiresAt <= now) {
+            return;
+        }
+        add(jti, expiresAt);
+        try {
+            redisTemplate.opsForZSet().add(REVOKED_KEY, jti, expiresAt);
+            redisTemplate.opsForZSet().removeRangeByScore(REVOKED_KEY, 0, now);
+            redisTemplate.convertAndSend(REVOKE_CHANNEL, jti + ":" + expiresAt);
+        } catch (Exception e) {
+            log.error("同步 Token 吊销记录失败: {}, {}", jti, e.getMessage());
+        }
+    }
+    
+    /**
+     * 当前保存的吊销记录数
+     */
+    public int size() {
+        return revoked.size();
+    }
+    
+    /**
+     * 启动完成（频道已订阅）后加载快照，订阅与快照之间到达的广播会被重复写入，不影响结果
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSnapshot() {
+        try {
+            Set<ZSetOperations.TypedTuple<String>> snapshot = redisTemplate.opsForZSet()
+                    .rangeByScoreWithScores(REVOKED_KEY, System.currentTimeMillis(), Double.MAX_VALUE);
+            if (snapshot != null) {
+                for (ZSetOperations.TypedTuple<String> tuple : snapshot) {
+                    if (tuple.getValue() != null && tuple.getScore() != null) {
+                        add(tuple.getValue(), tuple.getScore().longValue());
+                    }
+                }
+            }
+            log.info("Token 吊销列表加载完成: {} 条", revoked.size());
+        } catch (Exception e) {
+            log.error("加载 Token 吊销列表失败: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 接收其他副本的吊销广播
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        try {
+            add(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            log.warn("无效的 Token 吊销消息: {}", body);
+        }
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        sweeper.shutdownNow();
+    }
+    
+    private void add(String jti, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        Long previous = revoked.put(jti, expiresAt);
+        if (previous != null && previous != expiresAt) {
+            expiryOrder.remove(new Entry(previous, jti));
+        }
+        expiryOrder.add(new Entry(expiresAt, jti));
+    }
+    
+    /**
+     * 从跳表头部开始清理已过期的记录，遇到第一个未过期的即停止
+     */
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        Entry head;
+        while ((head = expiryOrder.pollFirst()) != null) {
+            if (head.expiresAt() > now) {
+                expiryOrder.add(head);
+                return;
+            }
+            revoked.remove(head.jti(), head.expiresAt());
+        }
+    }
+    
+    private record Entry(long expiresAt, String jti) {
+    }
+}
@@ -0,0 +1,261 @@
+package com.ecommerce.common.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 二级缓存：失效与回填竞争时的版本号保护，以及事务提交后才失效
+ * <p>
+ * 版本号脚本在 Redis 中执行，这里用按脚本语义实现的内存 Redis 替身，多个缓存实例共用一份以模拟多副本。
+ */
+class TwoLevelCacheTest {
+
+    private final FakeRedis redis = new FakeRedis();
+
+    private final ItemCache cache = redis.attach(new ItemCache());
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void loadsOnceThenServesFromCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.getOrLoad(1L, () -> item(1L, "v1", loads))).isEqualTo(new Item(1L, "v1"));
+        assertThat(cache.getOrLoad(1L, () -> item(1L, "v2", loads))).isEqualTo(new Item(1L, "v1"));
+
+        assertThat(loads).hasValue(1);
+        assertThat(redis.strings).containsKey("item:{1}");
+    }
+
+    @Test
+    void otherReplicaReadsRefilledValueFromRedis() {
+        cache.getOrLoad(1L, () -> new Item(1L, "v1"));
+        ItemCache other = redis.attach(new ItemCache());
+
+        assertThat(other.get(1L)).isEqualTo(new Item(1L, "v1"));
+    }
+
+    @Test
+    void refillIsAbandonedWhenEvictedDuringLoad() {
+        cache.getOrLoad(1L, () -> {
+            // 加载期间另一个请求提交了更新并失效缓存，这里读到的是旧数据
+            cache.evict(1L);
+            return new Item(1L, "stale");
+        });
+
+        assertThat(redis.strings).doesNotContainKey("item:{1}");
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.getOrLoad(1L, () -> new Item(1L, "fresh"))).isEqualTo(new Item(1L, "fresh"));
+        assertThat(cache.get(1L)).isEqualTo(new Item(1L, "fresh"));
+    }
+
+    @Test
+    void refillIsAbandonedWhenAnotherReplicaEvictsDuringLoad() {
+        ItemCache other = redis.attach(new ItemCache());
+
+        cache.getOrLoad(1L, () -> {
+            other.evict(1L);
+            return new Item(1L, "stale");
+        });
+
+        assertThat(redis.strings).doesNotContainKey("item:{1}");
+        assertThat(cache.get(1L)).isNull();
+        assertThat(other.get(1L)).isNull();
+    }
+
+    @Test
+    void batchRefillIsAbandonedOnlyForEvictedIds() {
+        Map<Long, Item> loaded = cache.getAllOrLoad(List.of(1L, 2L), ids -> {
+            cache.evict(2L);
+            return ids.stream().map(id -> new Item(id, "v" + id)).toList();
+        });
+
+        assertThat(loaded).containsOnlyKeys(1L, 2L);
+        assertThat(redis.strings).containsKey("item:{1}").doesNotContainKey("item:{2}");
+        assertThat(cache.get(2L)).isNull();
+    }
+
+    @Test
+    void stalePutIfVersionIsRejected() {
+        redis.strings.put("item:{1}:ver", "3");
+
+        Long written = redis.template.execute(TwoLevelCache.PUT_IF_VERSION,
+                List.of("item:{1}", "item:{1}:ver"), "2", "{\"id\":1,\"name\":\"stale\"}", "60000");
+
+        assertThat(written).isZero();
+        assertThat(redis.strings).doesNotContainKey("item:{1}");
+
+        written = redis.template.execute(TwoLevelCache.PUT_IF_VERSION,
+                List.of("item:{1}", "item:{1}:ver"), "3", "{\"id\":1,\"name\":\"fresh\"}", "60000");
+        assertThat(written).isEqualTo(1);
+    }
+
+    @Test
+    void versionReadFailureSkipsRedisRefill() {
+        redis.failVersionReads = true;
+
+        assertThat(cache.getOrLoad(1L, () -> new Item(1L, "v1"))).isEqualTo(new Item(1L, "v1"));
+
+        assertThat(redis.strings).doesNotContainKey("item:{1}");
+        assertThat(cache.get(1L)).isEqualTo(new Item(1L, "v1"));
+    }
+
+    @Test
+    void evictInsideTransactionRunsAfterCommit() {
+        cache.getOrLoad(1L, () -> new Item(1L, "v1"));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evict(1L);
+
+        // 提交前仍可读到旧值，版本号也未递增
+        assertThat(cache.get(1L)).isEqualTo(new Item(1L, "v1"));
+        assertThat(redis.strings).containsKey("item:{1}").doesNotContainKey("item:{1}:ver");
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(redis.strings).doesNotContainKey("item:{1}").containsEntry("item:{1}:ver", "1");
+        assertThat(redis.published).containsExactly("1");
+    }
+
+    @Test
+    void evictInsideRolledBackTransactionIsDropped() {
+        cache.getOrLoad(1L, () -> new Item(1L, "v1"));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evict(1L);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(cache.get(1L)).isEqualTo(new Item(1L, "v1"));
+        assertThat(redis.published).isEmpty();
+    }
+
+    private static Item item(Long id, String name, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new Item(id, name);
+    }
+
+    public record Item(Long id, String name) {
+    }
+
+    static class ItemCache extends TwoLevelCache<Item> {
+
+        ItemCache() {
+            super("item", "item:", "item:evict", Item.class);
+        }
+
+        @Override
+        protected Long idOf(Item item) {
+            return item.id();
+        }
+    }
+
+    /**
+     * 按 {@link TwoLevelCache} 中脚本语义实现的内存 Redis，失效广播同步投递给所有缓存实例
+     */
+    private static class FakeRedis {
+
+        final Map<String, String> strings = new HashMap<>();
+
+        final List<String> published = new ArrayList<>();
+
+        final StringRedisTemplate template = mock(StringRedisTemplate.class);
+
+        private final List<ItemCache> replicas = new ArrayList<>();
+
+        boolean failVersionReads;
+
+        @SuppressWarnings("unchecked")
+        FakeRedis() {
+            ValueOperations<String, String> values = mock(ValueOperations.class);
+            when(values.get(anyString())).thenAnswer(i -> read(i.getArgument(0)));
+            when(values.multiGet(anyList())).thenAnswer(i -> {
+                List<String> result = new ArrayList<>();
+                for (String key : i.<List<String>>getArgument(0)) {
+                    result.add(read(key));
+                }
+                return result;
+            });
+            when(template.opsForValue()).thenReturn(values);
+            doAnswer(this::execute).when(template).execute(any(RedisScript.class), anyList(), any(Object[].class));
+            doAnswer(i -> {
+                String body = i.getArgument(1);
+                published.add(body);
+                for (ItemCache replica : replicas) {
+                    replica.onMessage(new DefaultMessage(
+                            "item:evict".getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8)), null);
+                }
+                return 1L;
+            }).when(template).convertAndSend(anyString(), any());
+        }
+
+        ItemCache attach(ItemCache cache) {
+            ReflectionTestUtils.setField(cache, "redisTemplate", template);
+            ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+            cache.configure(100, Duration.ofMinutes(1), Duration.ofMinutes(30));
+            replicas.add(cache);
+            return cache;
+        }
+
+        private String read(String key) {
+            if (failVersionReads && key.endsWith(":ver")) {
+                throw new IllegalStateException("injected");
+            }
+            return strings.get(key);
+        }
+
+        private Object execute(InvocationOnMock invocation) {
+            RedisScript<?> script = invocation.getArgument(0);
+            List<String> keys = invocation.getArgument(1);
+            Object[] args = (Object[]) invocation.getRawArguments()[2];
+            if (script == TwoLevelCache.PUT_IF_VERSION) {
+                if (!strings.getOrDefault(keys.get(1), "0").equals(args[0])) {
+                    return 0L;
+                }
+                strings.put(keys.get(0), (String) args[1]);
+                return 1L;
+            }
+            if (script == TwoLevelCache.EVICT) {
+                strings.remove(keys.get(0));
+                long version = Long.parseLong(strings.getOrDefault(keys.get(1), "0")) + 1;
+                strings.put(keys.get(1), String.valueOf(version));
+                return version;
+            }
+            throw new IllegalArgumentException("未知脚本");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecommerce.common.metrics;
+
+import com.ecommerce.common.metrics.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 服务方法计时切面：同步方法计时，响应式方法不计时
+ */
+class ServiceMetricsAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final OrderService service = proxy(new OrderService() {
+
+        @Override
+        public String find(Long id) {
+            return "order-" + id;
+        }
+
+        @Override
+        public Mono<String> findReactive(Long id) {
+            return Mono.just("order-" + id);
+        }
+
+        @Override
+        public Flux<String> list() {
+            return Flux.just("order-1", "order-2");
+        }
+    });
+
+    @Test
+    void synchronousMethodsAreTimed() {
+        assertThat(service.find(1L)).isEqualTo("order-1");
+
+        assertThat(meterRegistry.get(ServiceMetricsAspect.METRIC_NAME)
+                .tag("class", "OrderService")
+                .tag("method", "find")
+                .tag("exception", "none")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void publisherReturningMethodsAreNotTimed() {
+        assertThat(service.findReactive(1L).block()).isEqualTo("order-1");
+        assertThat(service.list().collectList().block()).containsExactly("order-1", "order-2");
+
+        assertThat(meterRegistry.find(ServiceMetricsAspect.METRIC_NAME).timers()).isEmpty();
+    }
+
+    private OrderService proxy(OrderService target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addInterface(OrderService.class);
+        factory.addAspect(new ServiceMetricsAspect(meterRegistry));
+        return factory.getProxy();
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.common.metrics.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 位于 service 包中的测试服务接口，供切点匹配
+ */
+public interface OrderService {
+
+    String find(Long id);
+
+    Mono<String> findReactive(Long id);
+
+    Flux<String> list();
+}
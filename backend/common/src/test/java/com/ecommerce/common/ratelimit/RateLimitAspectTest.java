@@ -0,0 +1,132 @@
+package com.ecommerce.common.ratelimit;
+
+import com.ecommerce.common.exception.BusinessException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 限流切面：SpEL 限流键解析与超限处理
+ */
+class RateLimitAspectTest {
+
+    private final RateLimiter rateLimiter = mock(RateLimiter.class);
+
+    private final RateLimitAspect aspect = new RateLimitAspect();
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(aspect, "rateLimiter", rateLimiter);
+        request.setRemoteAddr("10.0.0.1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        when(rateLimiter.tryAcquire(any(), any())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void resolvesIpFromConnectionAddress() throws Throwable {
+        invoke("byIp", new LoginBody("alice"));
+
+        verify(rateLimiter).tryAcquire(rule("login.ip"), eq("10.0.0.1"));
+    }
+
+    @Test
+    void prefersProxyRealIpHeader() throws Throwable {
+        request.addHeader("X-Real-IP", "203.0.113.7");
+
+        invoke("byIp", new LoginBody("alice"));
+
+        verify(rateLimiter).tryAcquire(rule("login.ip"), eq("203.0.113.7"));
+    }
+
+    @Test
+    void resolvesArgumentPropertiesAndCompositeKeys() throws Throwable {
+        invoke("byUsernameAndIp", new LoginBody("alice"));
+
+        verify(rateLimiter).tryAcquire(rule("login.user"), eq("alice"));
+        verify(rateLimiter).tryAcquire(rule("login.user-ip"), eq("alice:10.0.0.1"));
+    }
+
+    @Test
+    void rejectedRuleThrows429AndSkipsMethod() throws Throwable {
+        when(rateLimiter.tryAcquire(rule("login.user"), any()))
+                .thenReturn(false);
+        ProceedingJoinPoint joinPoint = joinPoint("byUsernameAndIp", new LoginBody("alice"));
+
+        assertThatThrownBy(() -> aspect.around(joinPoint))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getCode())
+                .isEqualTo(429);
+        verify(joinPoint, never()).proceed();
+    }
+
+    @Test
+    void fallsBackToUnknownIpOutsideRequest() throws Throwable {
+        RequestContextHolder.resetRequestAttributes();
+
+        invoke("byIp", new LoginBody("alice"));
+
+        verify(rateLimiter).tryAcquire(rule("login.ip"), eq("unknown"));
+    }
+
+    private void invoke(String methodName, Object... args) throws Throwable {
+        ProceedingJoinPoint joinPoint = joinPoint(methodName, args);
+        assertThat(aspect.around(joinPoint)).isEqualTo("ok");
+    }
+
+    private static ProceedingJoinPoint joinPoint(String methodName, Object... args) throws Throwable {
+        Method method = Controller.class.getDeclaredMethod(methodName, LoginBody.class);
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(method);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getArgs()).thenReturn(args);
+        when(joinPoint.proceed()).thenReturn("ok");
+        return joinPoint;
+    }
+
+    private static RateLimit rule(String name) {
+        return argThat(rule -> rule != null && rule.name().equals(name));
+    }
+
+    public record LoginBody(String username) {
+    }
+
+    static class Controller {
+
+        @RateLimit(name = "login.ip", permits = 10)
+        String byIp(LoginBody request) {
+            return "ok";
+        }
+
+        @RateLimit(name = "login.user", key = "#request.username", permits = 5)
+        @RateLimit(name = "login.user-ip", key = "#request.username + ':' + #ip", permits = 5)
+        String byUsernameAndIp(LoginBody request) {
+            return "ok";
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.ecommerce.common.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 限流器：本地令牌桶与 Redis 滑动窗口的组合判定
+ * <p>
+ * 滑动窗口脚本本身在 Redis 中执行，这里校验传给脚本的键与参数，以及脚本结果、Redis 故障时的处理。
+ */
+class RateLimiterTest {
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<StringRedisTemplate> redisProvider = mock(ObjectProvider.class);
+        when(redisProvider.getIfAvailable()).thenReturn(redisTemplate);
+        ObjectProvider<MeterRegistry> meterProvider = mock(ObjectProvider.class);
+        when(meterProvider.getIfAvailable()).thenReturn(meterRegistry);
+
+        rateLimiter = new RateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "redisTemplateProvider", redisProvider);
+        ReflectionTestUtils.setField(rateLimiter, "meterRegistryProvider", meterProvider);
+        ReflectionTestUtils.setField(rateLimiter, "enabled", true);
+        ReflectionTestUtils.setField(rateLimiter, "maxKeys", 1000L);
+        ReflectionTestUtils.setField(rateLimiter, "idleTimeout", Duration.ofMinutes(1));
+        rateLimiter.init();
+    }
+
+    @Test
+    void localModeNeverTouchesRedis() {
+        RateLimit rule = rule("local");
+
+        assertThat(rateLimiter.tryAcquire(rule, "alice")).isTrue();
+        assertThat(rateLimiter.tryAcquire(rule, "alice")).isTrue();
+        assertThat(rateLimiter.tryAcquire(rule, "alice")).isFalse();
+        // 不同的限流键各自计数
+        assertThat(rateLimiter.tryAcquire(rule, "bob")).isTrue();
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any(), any(), any());
+        assertThat(meterRegistry.counter("rate.limit.requests", "name", "test.local", "result", "rejected").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void distributedModePassesWindowArgumentsToScript() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any())).thenReturn(1L);
+
+        assertThat(rateLimiter.tryAcquire(rule("distributed"), "alice")).isTrue();
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object> now = ArgumentCaptor.forClass(Object.class);
+        ArgumentCaptor<Object> window = ArgumentCaptor.forClass(Object.class);
+        ArgumentCaptor<Object> limit = ArgumentCaptor.forClass(Object.class);
+        ArgumentCaptor<Object> requestId = ArgumentCaptor.forClass(Object.class);
+        verify(redisTemplate).execute(any(RedisScript.class), keys.capture(),
+                now.capture(), window.capture(), limit.capture(), requestId.capture());
+        assertThat(keys.getValue()).containsExactly("ratelimit:test.distributed:alice");
+        assertThat(Long.parseLong((String) now.getValue()))
+                .isCloseTo(System.currentTimeMillis(), within(5_000L));
+        assertThat(window.getValue()).isEqualTo("60000");
+        assertThat(limit.getValue()).isEqualTo("2");
+        assertThat((String) requestId.getValue()).isNotBlank();
+    }
+
+    @Test
+    void distributedModeRejectsWhenWindowIsFull() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any())).thenReturn(0L);
+
+        assertThat(rateLimiter.tryAcquire(rule("distributed"), "alice")).isFalse();
+    }
+
+    @Test
+    void localBucketRejectsBeforeReachingRedis() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any())).thenReturn(1L);
+        RateLimit rule = rule("distributed");
+
+        rateLimiter.tryAcquire(rule, "alice");
+        rateLimiter.tryAcquire(rule, "alice");
+        assertThat(rateLimiter.tryAcquire(rule, "alice")).isFalse();
+
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), any(), any(), any(), any());
+    }
+
+    @Test
+    void redisFailureFallsBackToLocalLimit() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        RateLimit rule = rule("distributed");
+
+        assertThat(rateLimiter.tryAcquire(rule, "alice")).isTrue();
+        assertThat(rateLimiter.tryAcquire(rule, "alice")).isTrue();
+        assertThat(rateLimiter.tryAcquire(rule, "alice")).isFalse();
+    }
+
+    @Test
+    void disabledLimiterAllowsEverything() {
+        ReflectionTestUtils.setField(rateLimiter, "enabled", false);
+        RateLimit rule = rule("local");
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(rateLimiter.tryAcquire(rule, "alice")).isTrue();
+        }
+    }
+
+    private static RateLimit rule(String methodName) {
+        try {
+            return Rules.class.getDeclaredMethod(methodName).getAnnotation(RateLimit.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static class Rules {
+
+        @RateLimit(name = "test.local", permits = 2)
+        void local() {
+        }
+
+        @RateLimit(name = "test.distributed", permits = 2, mode = RateLimit.Mode.DISTRIBUTED)
+        void distributed() {
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.ecommerce.common.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 令牌桶（GCRA）突发与补充边界
+ */
+class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    /**
+     * 每秒 5 个令牌，发放间隔 200ms
+     */
+    private final TokenBucket bucket = new TokenBucket(5, TimeUnit.SECONDS.toNanos(1), now::get);
+
+    @Test
+    void allowsBurstUpToPermitsThenRejects() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire()).as("第 %d 个请求", i + 1).isTrue();
+        }
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        drain();
+
+        advance(199);
+        assertThat(bucket.tryAcquire()).isFalse();
+
+        advance(1);
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void idleTimeRefillsAtMostFullBurst() {
+        drain();
+
+        advance(10_000);
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire()).isTrue();
+        }
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsumeTokens() {
+        drain();
+        for (int i = 0; i < 100; i++) {
+            bucket.tryAcquire();
+        }
+
+        advance(200);
+        assertThat(bucket.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void singlePermitBucketAllowsNoBurst() {
+        TokenBucket single = new TokenBucket(1, TimeUnit.SECONDS.toNanos(1), now::get);
+
+        assertThat(single.tryAcquire()).isTrue();
+        assertThat(single.tryAcquire()).isFalse();
+        advance(999);
+        assertThat(single.tryAcquire()).isFalse();
+        advance(1);
+        assertThat(single.tryAcquire()).isTrue();
+    }
+
+    private void drain() {
+        while (bucket.tryAcquire()) {
+            // 耗尽突发额度
+        }
+    }
+
+    private void advance(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
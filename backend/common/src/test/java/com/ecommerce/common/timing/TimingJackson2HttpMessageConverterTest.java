@@ -0,0 +1,62 @@
+package com.ecommerce.common.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 序列化计时：只有开启 Server-Timing 响应头时才缓冲响应体
+ */
+class TimingJackson2HttpMessageConverterTest {
+
+    private static final Map<String, Object> BODY = Map.of("id", 1);
+
+    @AfterEach
+    void tearDown() {
+        RequestTiming.end();
+    }
+
+    @Test
+    void headerDisabledWritesStraightThroughAndStillRecords() throws IOException {
+        RequestTiming timing = RequestTiming.begin();
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+        new TimingJackson2HttpMessageConverter(new ObjectMapper(), false)
+                .write(BODY, MediaType.APPLICATION_JSON, message);
+
+        assertThat(message.getBodyAsString()).isEqualTo("{\"id\":1}");
+        assertThat(message.getHeaders().getContentLength()).isEqualTo(-1);
+        assertThat(timing.timings()).containsKey(RequestTiming.SERIALIZATION);
+    }
+
+    @Test
+    void headerEnabledBuffersToMeasureBeforeCommit() throws IOException {
+        RequestTiming timing = RequestTiming.begin();
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+        new TimingJackson2HttpMessageConverter(new ObjectMapper(), true)
+                .write(BODY, MediaType.APPLICATION_JSON, message);
+
+        assertThat(message.getBodyAsString()).isEqualTo("{\"id\":1}");
+        assertThat(message.getHeaders().getContentLength()).isEqualTo(8);
+        assertThat(timing.timings()).containsKey(RequestTiming.SERIALIZATION);
+    }
+
+    @Test
+    void outsideRequestNothingIsRecorded() throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+        new TimingJackson2HttpMessageConverter(new ObjectMapper(), true)
+                .write(BODY, MediaType.APPLICATION_JSON, message);
+
+        assertThat(message.getBodyAsString()).isEqualTo("{\"id\":1}");
+        assertThat(RequestTiming.isActive()).isFalse();
+    }
+}
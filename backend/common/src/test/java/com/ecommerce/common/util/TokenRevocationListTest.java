@@ -0,0 +1,128 @@
+package com.ecommerce.common.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Token 吊销列表：吊销、跨副本广播与按过期时间淘汰
+ */
+class TokenRevocationListTest {
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+
+    @SuppressWarnings("unchecked")
+    private final ZSetOperations<String, String> zSet = mock(ZSetOperations.class);
+
+    private final TokenRevocationList revocationList = new TokenRevocationList();
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSet);
+        ReflectionTestUtils.setField(revocationList, "redisTemplate", redisTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        revocationList.destroy();
+    }
+
+    @Test
+    void revokeRecordsLocallyAndPublishes() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        revocationList.revoke("jti-1", expiresAt);
+
+        assertThat(revocationList.isRevoked("jti-1")).isTrue();
+        assertThat(revocationList.isRevoked("jti-2")).isFalse();
+        assertThat(revocationList.isRevoked(null)).isFalse();
+        verify(zSet).add("auth:token:revoked", "jti-1", expiresAt);
+        verify(redisTemplate).convertAndSend(TokenRevocationList.REVOKE_CHANNEL, "jti-1:" + expiresAt);
+    }
+
+    @Test
+    void alreadyExpiredTokensAreNotRecorded() {
+        revocationList.revoke("jti-1", System.currentTimeMillis() - 1);
+        revocationList.onMessage(message("jti-2:" + (System.currentTimeMillis() - 1)), null);
+
+        assertThat(revocationList.size()).isZero();
+    }
+
+    @Test
+    void broadcastFromOtherReplicaIsRecorded() {
+        revocationList.onMessage(message("jti:with:colons:" + (System.currentTimeMillis() + 60_000)), null);
+        revocationList.onMessage(message("garbage"), null);
+
+        assertThat(revocationList.isRevoked("jti:with:colons")).isTrue();
+        assertThat(revocationList.size()).isEqualTo(1);
+    }
+
+    @Test
+    void redisFailureStillRevokesLocally() {
+        when(zSet.add(anyString(), anyString(), anyDouble())).thenThrow(new IllegalStateException("down"));
+
+        revocationList.revoke("jti-1", System.currentTimeMillis() + 60_000);
+
+        assertThat(revocationList.isRevoked("jti-1")).isTrue();
+    }
+
+    @Test
+    void sweepDropsOnlyExpiredEntries() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        revocationList.revoke("short", now + 100);
+        revocationList.revoke("long", now + 60_000);
+        // 重复吊销更新过期时间，旧的排序条目需一并移除
+        revocationList.onMessage(message("long:" + (now + 120_000)), null);
+
+        Thread.sleep(150);
+        ReflectionTestUtils.invokeMethod(revocationList, "evictExpired");
+
+        assertThat(revocationList.isRevoked("short")).isFalse();
+        assertThat(revocationList.isRevoked("long")).isTrue();
+        assertThat(revocationList.size()).isEqualTo(1);
+    }
+
+    @Test
+    void backgroundSweeperRunsWithoutBeingCalled() throws InterruptedException {
+        revocationList.revoke("short", System.currentTimeMillis() + 100);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (revocationList.size() > 0) {
+            assertThat(System.nanoTime()).as("等待后台清理超时").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+        assertThat(revocationList.isRevoked("short")).isFalse();
+    }
+
+    @Test
+    void snapshotLoadsUnexpiredRevocations() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        when(zSet.rangeByScoreWithScores(eq("auth:token:revoked"), anyDouble(), anyDouble()))
+                .thenReturn(Set.of(ZSetOperations.TypedTuple.of("jti-1", (double) expiresAt)));
+
+        revocationList.loadSnapshot();
+
+        assertThat(revocationList.isRevoked("jti-1")).isTrue();
+    }
+
+    static DefaultMessage message(String body) {
+        return new DefaultMessage(TokenRevocationList.REVOKE_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.gateway;
+
+import com.ecommerce.common.util.JwtUtil;
+import com.ecommerce.common.util.TokenRevocationList;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.Import;
+
+/**
+ * 网关服务启动类
+ * <p>
+ * 不扫描 com.ecommerce.common：其中的 Servlet 组件（全局异常处理等）在 WebFlux 下不可用，
+ * 只导入 JwtUtil 与 Token 吊销列表。
+ */
+@SpringBootApplication
+@EnableDiscoveryClient
+@Import({JwtUtil.class, TokenRevocationList.class})
+public class GatewayServiceApplication {
+    
+    public static void main(String[] args) {
+        SpringApplication.run(GatewayServiceApplication.class, args);
+    }
+}
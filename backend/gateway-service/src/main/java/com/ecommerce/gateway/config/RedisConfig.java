@@ -0,0 +1,27 @@
+package com.ecommerce.gateway.config;
+
+import com.ecommerce.common.util.TokenRevocationList;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Redis 配置
+ */
+@Configuration
+public class RedisConfig {
+    
+    /**
+     * 订阅 Token 吊销频道
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(
+            RedisConnectionFactory connectionFactory, TokenRevocationList tokenRevocationList) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(tokenRevocationList, new ChannelTopic(TokenRevocationList.REVOKE_CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,141 @@
+package com.ecommerce.gateway.filter;
+
+import com.ecommerce.common.dto.TokenPrincipal;
+import com.ecommerce.common.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 边缘 JWT 认证过滤器
+ * <p>
+ * 每个请求只在网关做一次 Token 验签（JwtUtil 自带已验证 Token 缓存），
+ * 通过后以 X-User-Id / X-Username 请求头把身份转发给下游服务，下游不再需要密钥和验签。
+ * 客户端自带的同名请求头一律剔除，防止伪造身份。
+ * <p>
+ * 匿名可访问的接口由 gateway.auth.public-paths 配置，格式为 "[METHOD ]pattern"，逗号分隔；
+ * 匿名接口携带了有效 Token 时同样转发身份，携带无效 Token 时按匿名处理。
+ */
+@Slf4j
+@Component
+public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
+    
+    private static final String BEARER_PREFIX = "Bearer ";
+    
+    private static final byte[] UNAUTHORIZED_BODY =
+            "{\"code\":401,\"message\":\"未授权\"}".getBytes(StandardCharsets.UTF_8);
+    
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    
+    private final List<PublicPath> publicPaths = new ArrayList<>();
+    
+    private final JwtUtil jwtUtil;
+    
+    private final Timer verifyTimer;
+    
+    @Autowired
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, MeterRegistry meterRegistry,
+                                   @Value("${gateway.auth.public-paths:}") List<String> publicPathSpecs) {
+        this.jwtUtil = jwtUtil;
+        this.verifyTimer = Timer.builder("gateway.auth.verify")
+                .description("网关 Token 验签耗时")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        for (String spec : publicPathSpecs) {
+            String trimmed = spec.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int space = trimmed.indexOf(' ');
+            publicPaths.add(space > 0
+                    ? new PublicPath(HttpMethod.valueOf(trimmed.substring(0, space)), trimmed.substring(space + 1).trim())
+                    : new PublicPath(null, trimmed));
+        }
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        TokenPrincipal principal = authenticate(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+        
+        if (principal == null && !isPublic(request)) {
+            return unauthorized(exchange.getResponse());
+        }
+        
+        ServerHttpRequest mutated = request.mutate()
+                .headers(headers -> {
+                    headers.remove(TokenPrincipal.USER_ID_HEADER);
+                    headers.remove(TokenPrincipal.USERNAME_HEADER);
+                    if (principal != null) {
+                        headers.set(TokenPrincipal.USER_ID_HEADER, String.valueOf(principal.getUserId()));
+                        if (principal.getUsername() != null) {
+                            headers.set(TokenPrincipal.USERNAME_HEADER, principal.getUsername());
+                        }
+                    }
+                })
+                .build();
+        return chain.filter(exchange.mutate().request(mutated).build());
+    }
+    
+    /**
+     * 在路由之前执行
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+    
+    private TokenPrincipal authenticate(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            return jwtUtil.verify(authHeader.substring(BEARER_PREFIX.length()));
+        } finally {
+            verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    private boolean isPublic(ServerHttpRequest request) {
+        String path = request.getPath().pathWithinApplication().value();
+        for (PublicPath publicPath : publicPaths) {
+            if ((publicPath.method() == null || publicPath.method().equals(request.getMethod()))
+                    && pathMatcher.match(publicPath.pattern(), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private Mono<Void> unauthorized(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer buffer = response.bufferFactory().wrap(UNAUTHORIZED_BODY);
+        return response.writeWith(Mono.just(buffer));
+    }
+    
+    private record PublicPath(HttpMethod method, String pattern) {
+    }
+}
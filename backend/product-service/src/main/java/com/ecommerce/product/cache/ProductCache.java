@@ -0,0 +1,47 @@
+package com.ecommerce.product.cache;
+
+import com.ecommerce.common.cache.TwoLevelCache;
+import com.ecommerce.product.dto.ProductDto;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 商品详情二级缓存
+ * <p>
+ * L1 为进程内 Caffeine 缓存（按容量淘汰），L2 为 Redis。
+ * 写操作通过 {@link #evict(Long)} 失效两级缓存，并经 Redis 频道广播给其他副本清理各自的 L1。
+ */
+@Component
+public class ProductCache extends TwoLevelCache<ProductDto> {
+
+    /**
+     * 缓存失效广播频道
+     */
+    public static final String EVICT_CHANNEL = "product:cache:evict";
+
+    @Value("${product.cache.local.max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${product.cache.local.ttl:60s}")
+    private Duration localTtl;
+
+    @Value("${product.cache.redis.ttl:30m}")
+    private Duration redisTtl;
+
+    public ProductCache() {
+        super("product", "product:detail:", EVICT_CHANNEL, ProductDto.class);
+    }
+
+    @PostConstruct
+    public void init() {
+        configure(localMaxSize, localTtl, redisTtl);
+    }
+
+    @Override
+    protected Long idOf(ProductDto productDto) {
+        return productDto.getId();
+    }
+}
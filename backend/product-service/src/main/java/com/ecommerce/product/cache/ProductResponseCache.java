@@ -0,0 +1,254 @@
+package com.ecommerce.product.cache;
+
+import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.common.timing.RequestTiming;
+import com.ecommerce.product.dto.ProductDto;
+import com.ecommerce.product.dto.ProductSummaryDto;
+import com.ecommerce.product.stock.FlashSaleStockEngine;
+import com.ecommerce.product.util.ProductETags;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 商品响应体缓存
+ * <p>
+ * 缓存商品详情与分类列表首页序列化后的 JSON 字节及其 gzip 版本，命中时直接写出字节，
+ * 不再经过实体加载、DTO 组装与 Jackson 序列化，压缩也只在首次生成时做一次。
+ * 缓存只在进程内，写操作在事务提交后失效本地条目，并经 Redis 频道广播给其他副本。
+ * <p>
+ * 秒杀热点商品的详情库存实时变化，不进入缓存；列表中的热点商品库存本就以数据库刷写值为准，
+ * 由 TTL 兜底刷新。
+ */
+@Slf4j
+@Component
+public class ProductResponseCache implements MessageListener {
+    
+    /**
+     * 缓存失效广播频道，消息格式为 "p:商品ID"、"c:分类ID" 或 "*"
+     */
+    public static final String EVICT_CHANNEL = "product:response:evict";
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private FlashSaleStockEngine flashSaleStockEngine;
+    
+    @Value("${product.response-cache.max-size:2000}")
+    private long maxSize;
+    
+    @Value("${product.response-cache.ttl:60s}")
+    private Duration ttl;
+    
+    /**
+     * 小于该字节数的响应不压缩，压缩收益抵不过 gzip 头部与客户端解压开销
+     */
+    @Value("${product.response-cache.gzip-min-size:1024}")
+    private int gzipMinSize;
+    
+    private Cache<String, CachedResponse> cache;
+    
+    /**
+     * 失效版本号，加载期间发生过失效时丢弃加载结果，避免把旧数据写回缓存
+     */
+    private final AtomicLong generation = new AtomicLong();
+    
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+    
+    /**
+     * 获取商品详情响应，未命中时调用 loader 加载并缓存
+     */
+    public CachedResponse getProduct(Long productId, Supplier<ProductDto> loader) {
+        Supplier<CachedResponse> render = () -> {
+            ProductDto productDto = loader.get();
+            return render(productDto, ProductETags.strong(productDto),
+                    ProductETags.toEpochMilli(productDto.getUpdatedAt()), null, Set.of(productId));
+        };
+        return flashSaleStockEngine.isHot(productId) ? render.get() : getOrLoad("detail:" + productId, render);
+    }
+    
+    /**
+     * 获取分类列表首页响应，未命中时调用 loader 加载并缓存
+     */
+    public CachedResponse getCategoryFirstPage(Long categoryId, int size, Supplier<Page<ProductSummaryDto>> loader) {
+        return getOrLoad("category:" + categoryId + ":" + size, () -> {
+            Page<ProductSummaryDto> products = loader.get();
+            Set<Long> productIds = products.getContent().stream()
+                    .map(ProductSummaryDto::getId)
+                    .collect(Collectors.toUnmodifiableSet());
+            return render(products, ProductETags.weak(products.getContent(), products.getTotalElements()),
+                    ProductETags.lastModified(products.getContent()), categoryId, productIds);
+        });
+    }
+    
+    /**
+     * 失效商品详情及包含该商品的列表
+     */
+    public void evictProduct(Long productId) {
+        afterCommit("p:" + productId);
+    }
+    
+    /**
+     * 失效分类下的列表（商品新增、删除会改变列表内容与总数）
+     */
+    public void evictCategory(Long categoryId) {
+        afterCommit("c:" + categoryId);
+    }
+    
+    /**
+     * 清空全部缓存（批量导入等无法逐条失效的场景）
+     */
+    public void clear() {
+        afterCommit("*");
+    }
+    
+    /**
+     * 接收其他副本的失效广播
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            invalidateLocal(body);
+        } catch (RuntimeException e) {
+            log.warn("无效的商品响应缓存失效消息: {}", body);
+        }
+    }
+    
+    /**
+     * 先取版本号再加载，写入后再次核对版本号：加载期间发生过失效则撤销本次写入。
+     * 不使用 Cache.get(key, mappingFunction)，避免在缓存的哈希桶锁内访问数据库。
+     */
+    private CachedResponse getOrLoad(String key, Supplier<CachedResponse> loader) {
+        CachedResponse cached = cache.getIfPresent(key);
+        RequestTiming.cache("response", cached != null);
+        if (cached != null) {
+            return cached;
+        }
+        long version = generation.get();
+        cached = loader.get();
+        cache.put(key, cached);
+        if (generation.get() != version) {
+            cache.invalidate(key);
+        }
+        return cached;
+    }
+    
+    private CachedResponse render(Object data, String eTag, long lastModified, Long categoryId, Set<Long> productIds) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(ApiResponse.success(data));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("商品响应序列化失败", e);
+        }
+        byte[] gzip = json.length >= gzipMinSize ? gzip(json) : null;
+        return new CachedResponse(json, gzip, eTag, lastModified, categoryId, productIds);
+    }
+    
+    /**
+     * 以最高压缩级别压缩，只在生成缓存时执行一次
+     */
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * 失效在事务提交后执行，此时新数据已可见；提交前读到的旧响应由 generation 复核拦下
+     */
+    private void afterCommit(String target) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doEvict(target);
+                }
+            });
+        } else {
+            doEvict(target);
+        }
+    }
+    
+    private void doEvict(String target) {
+        invalidateLocal(target);
+        try {
+            redisTemplate.convertAndSend(EVICT_CHANNEL, target);
+        } catch (Exception e) {
+            log.warn("广播商品响应缓存失效失败: {}, {}", target, e.getMessage());
+        }
+    }
+    
+    private void invalidateLocal(String target) {
+        generation.incrementAndGet();
+        if ("*".equals(target)) {
+            cache.invalidateAll();
+            return;
+        }
+        Long id = Long.valueOf(target.substring(2));
+        if (target.startsWith("p:")) {
+            cache.invalidate("detail:" + id);
+            cache.asMap().values().removeIf(response -> response.productIds().contains(id));
+        } else if (target.startsWith("c:")) {
+            cache.asMap().values().removeIf(response -> id.equals(response.categoryId()));
+        } else {
+            throw new IllegalArgumentException(target);
+        }
+    }
+    
+    /**
+     * 缓存的响应
+     *
+     * @param json         完整的 ApiResponse JSON
+     * @param gzip         gzip 压缩后的 JSON，响应较小时为 null
+     * @param eTag         ETag（详情为强 ETag，列表为弱 ETag）
+     * @param lastModified 最后修改时间（毫秒时间戳）
+     * @param categoryId   列表所属分类，详情为 null
+     * @param productIds   响应中包含的商品 ID
+     */
+    public record CachedResponse(byte[] json, byte[] gzip, String eTag, long lastModified,
+                                 Long categoryId, Set<Long> productIds) {
+    }
+}
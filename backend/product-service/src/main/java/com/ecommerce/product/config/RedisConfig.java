@@ -0,0 +1,34 @@
+package com.ecommerce.product.config;
+
+import com.ecommerce.common.util.TokenRevocationList;
+import com.ecommerce.product.cache.ProductCache;
+import com.ecommerce.product.cache.ProductResponseCache;
+import com.ecommerce.product.search.ProductSearchIndex;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Redis 配置
+ */
+@Configuration
+public class RedisConfig {
+
+    /**
+     * 订阅商品缓存与响应缓存失效频道、搜索索引刷新频道与 Token 吊销频道
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(
+            RedisConnectionFactory connectionFactory, ProductCache productCache, ProductResponseCache productResponseCache,
+            ProductSearchIndex productSearchIndex, TokenRevocationList tokenRevocationList) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(productCache, new ChannelTopic(ProductCache.EVICT_CHANNEL));
+        container.addMessageListener(productResponseCache, new ChannelTopic(ProductResponseCache.EVICT_CHANNEL));
+        container.addMessageListener(productSearchIndex, new ChannelTopic(ProductSearchIndex.REFRESH_CHANNEL));
+        container.addMessageListener(tokenRevocationList, new ChannelTopic(TokenRevocationList.REVOKE_CHANNEL));
+        return container;
+    }
+}
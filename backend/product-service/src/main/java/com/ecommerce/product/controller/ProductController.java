@@ -1,15 +1,37 @@
 package com.ecommerce.product.controller;
 
 import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.product.cache.ProductResponseCache;
+import com.ecommerce.product.cache.ProductResponseCache.CachedResponse;
+import com.ecommerce.product.dto.CursorPage;
+import com.ecommerce.product.dto.ExportFormat;
+import com.ecommerce.product.dto.ImportResult;
 import com.ecommerce.product.dto.ProductDto;
+import com.ecommerce.product.dto.ProductSummaryDto;
+import com.ecommerce.product.dto.StockAdjustment;
+import com.ecommerce.product.service.ProductExportService;
+import com.ecommerce.product.service.ProductImportService;
 import com.ecommerce.product.service.ProductService;
+import com.ecommerce.product.util.ProductETags;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 商品控制器
@@ -23,6 +45,18 @@ public class ProductController {
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private ProductExportService productExportService;
+    
+    @Autowired
+    private ProductImportService productImportService;
+    
+    @Autowired
+    private ProductResponseCache productResponseCache;
+    
+    @Value("${product.response-cache.max-page-size:50}")
+    private int maxCachedPageSize;
+    
     /**
      * 创建商品
      */
@@ -33,50 +67,140 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success("创建成功", created));
     }
     
+    /**
+     * 批量导入商品（请求体为 CSV 或 NDJSON 原始内容，流式读取）
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ApiResponse<ImportResult>> importProducts(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            HttpServletRequest request) throws IOException {
+        log.info("批量导入商品, 格式: {}", format);
+        ImportResult result = productImportService.importProducts(format, request.getInputStream());
+        return ResponseEntity.ok(ApiResponse.success("导入完成", result));
+    }
+    
     /**
      * 获取商品详情
+     * <p>
+     * 响应体取自预序列化缓存，客户端接受 gzip 时直接写出压缩后的字节。
+     * 返回强 ETag 与 Last-Modified，条件请求命中时由框架直接返回 304。
      */
     @GetMapping("/{productId}")
-    public ResponseEntity<ApiResponse<ProductDto>> getProduct(@PathVariable Long productId) {
-        ProductDto productDto = productService.getProductById(productId);
-        return ResponseEntity.ok(ApiResponse.success(productDto));
+    public ResponseEntity<byte[]> getProduct(
+            @PathVariable Long productId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        CachedResponse cached = productResponseCache.getProduct(productId,
+                () -> productService.getProductById(productId));
+        return cachedResponse(cached, acceptEncoding);
+    }
+    
+    /**
+     * 批量获取商品详情（结果与 ids 顺序一致，不存在的商品为 null）
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<ApiResponse<List<ProductDto>>> getProductsByIds(@RequestParam List<Long> ids) {
+        List<ProductDto> products = productService.getProductsByIds(ids);
+        return ResponseEntity.ok(ApiResponse.success(products));
     }
     
     /**
      * 分页查询所有商品
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<Page<ProductDto>>> getAllProducts(
+    public ResponseEntity<ApiResponse<Page<ProductSummaryDto>>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProductDto> products = productService.getAllProducts(pageable);
-        return ResponseEntity.ok(ApiResponse.success(products));
+        Page<ProductSummaryDto> products = productService.getAllProducts(pageable);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(ProductETags.weak(products.getContent(), products.getTotalElements()))
+                .headers(lastModified(ProductETags.lastModified(products.getContent())))
+                .body(ApiResponse.success(products));
+    }
+    
+    /**
+     * 游标分页查询所有商品（不返回总数，适用于无限滚动）
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<ProductSummaryDto>>> getAllProductsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        CursorPage<ProductSummaryDto> products = productService.getAllProducts(cursor, size);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(ProductETags.weak(products.getContent(), products.getContent().size()))
+                .headers(lastModified(ProductETags.lastModified(products.getContent())))
+                .body(ApiResponse.success(products));
     }
     
     /**
      * 根据分类查询商品
+     * <p>
+     * 首页（page=0）且 size 不超过 product.response-cache.max-page-size 时走预序列化缓存。
      */
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<ApiResponse<Page<ProductDto>>> getProductsByCategory(
+    public ResponseEntity<?> getProductsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProductDto> products = productService.getProductsByCategory(categoryId, pageable);
-        return ResponseEntity.ok(ApiResponse.success(products));
+        if (page == 0 && size <= maxCachedPageSize) {
+            CachedResponse cached = productResponseCache.getCategoryFirstPage(categoryId, size,
+                    () -> productService.getProductsByCategory(categoryId, pageable));
+            return cachedResponse(cached, acceptEncoding);
+        }
+        Page<ProductSummaryDto> products = productService.getProductsByCategory(categoryId, pageable);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(ProductETags.weak(products.getContent(), products.getTotalElements()))
+                .headers(lastModified(ProductETags.lastModified(products.getContent())))
+                .body(ApiResponse.success(products));
+    }
+    
+    /**
+     * 根据分类游标分页查询商品
+     */
+    @GetMapping("/category/{categoryId}/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<ProductSummaryDto>>> getProductsByCategoryByCursor(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        CursorPage<ProductSummaryDto> products = productService.getProductsByCategory(categoryId, cursor, size);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(ProductETags.weak(products.getContent(), products.getContent().size()))
+                .headers(lastModified(ProductETags.lastModified(products.getContent())))
+                .body(ApiResponse.success(products));
+    }
+    
+    /**
+     * 流式导出商品（NDJSON / CSV），可按分类和更新时间增量过滤
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        log.info("导出商品, 格式: {}, 分类: {}, 起始时间: {}", format, categoryId, since);
+        StreamingResponseBody body = out -> productExportService.export(format, categoryId, since, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products." + format.getExtension())
+                .body(body);
     }
     
     /**
      * 搜索商品
      */
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<Page<ProductDto>>> searchProducts(
+    public ResponseEntity<ApiResponse<Page<ProductSummaryDto>>> searchProducts(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProductDto> products = productService.searchProducts(keyword, pageable);
+        Page<ProductSummaryDto> products = productService.searchProducts(keyword, pageable);
         return ResponseEntity.ok(ApiResponse.success(products));
     }
     
@@ -113,4 +237,47 @@ public class ProductController {
         productService.updateStock(productId, quantity);
         return ResponseEntity.ok(ApiResponse.success("库存更新成功", null));
     }
+    
+    /**
+     * 批量更新库存
+     */
+    @PutMapping("/stock/batch")
+    public ResponseEntity<ApiResponse<Void>> updateStockBatch(@RequestBody List<StockAdjustment> adjustments) {
+        log.info("批量更新商品库存, 条数: {}", adjustments.size());
+        productService.updateStockBatch(adjustments);
+        return ResponseEntity.ok(ApiResponse.success("库存更新成功", null));
+    }
+    
+    /**
+     * 设置 Last-Modified；取值为 0 表示没有记录或没有更新时间，此时不设置，避免返回 1970 年的时间
+     */
+    private static Consumer<HttpHeaders> lastModified(long lastModified) {
+        return headers -> {
+            if (lastModified > 0) {
+                headers.setLastModified(lastModified);
+            }
+        };
+    }
+    
+    /**
+     * 写出预序列化的响应体
+     * <p>
+     * gzip 版本使用带后缀的强 ETag，避免与未压缩版本的字节级校验混淆；弱 ETag 两个版本共用。
+     */
+    private ResponseEntity<byte[]> cachedResponse(CachedResponse cached, String acceptEncoding) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .headers(lastModified(cached.lastModified()));
+        if (cached.gzip() != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            String eTag = cached.eTag().startsWith("W/")
+                    ? cached.eTag()
+                    : cached.eTag().substring(0, cached.eTag().length() - 1) + "-gzip\"";
+            return builder.eTag(eTag)
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(cached.gzip());
+        }
+        return builder.eTag(cached.eTag()).body(cached.json());
+    }
 }
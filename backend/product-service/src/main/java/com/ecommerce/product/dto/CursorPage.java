@@ -0,0 +1,38 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标分页结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    
+    /**
+     * 当前页数据
+     */
+    private List<T> content;
+    
+    /**
+     * 下一页游标，没有更多数据时为 null
+     */
+    private String nextCursor;
+    
+    /**
+     * 是否还有更多数据
+     */
+    private boolean hasMore;
+    
+    /**
+     * 页大小
+     */
+    private int size;
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.product.dto;
+
+/**
+ * 商品导出格式
+ */
+public enum ExportFormat {
+    
+    /**
+     * 每行一个 JSON 对象
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+    
+    /**
+     * 逗号分隔，首行为表头
+     */
+    CSV("text/csv", "csv");
+    
+    private final String contentType;
+    
+    private final String extension;
+    
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+    
+    public String getContentType() {
+        return contentType;
+    }
+    
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量导入结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResult {
+    
+    /**
+     * 读取的总行数
+     */
+    private long totalRows;
+    
+    /**
+     * 成功导入的行数
+     */
+    private long importedRows;
+    
+    /**
+     * 失败的行数
+     */
+    private long failedRows;
+    
+    /**
+     * 失败明细（最多返回前若干条）
+     */
+    private List<ImportRowError> errors;
+    
+    /**
+     * 耗时（毫秒）
+     */
+    private long durationMs;
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 导入失败的行
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowError {
+    
+    /**
+     * 文件中的物理行号（从 1 开始，CSV 表头为第 1 行；跨行的 CSV 记录取其起始行）
+     */
+    private long line;
+    
+    /**
+     * 失败原因
+     */
+    private String message;
+}
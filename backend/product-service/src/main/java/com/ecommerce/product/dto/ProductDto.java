@@ -12,7 +12,7 @@ import java.time.LocalDateTime;
  * 商品 DTO
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductDto {
@@ -0,0 +1,72 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 商品列表 DTO
+ * <p>
+ * 用于列表、分类和搜索结果，只包含列表页需要的字段，描述仅截取开头一段作为摘要。
+ * 字段顺序与 {@code ProductRepository#SUMMARY_SELECT} 中的构造表达式保持一致。
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummaryDto {
+    
+    /**
+     * 商品 ID
+     */
+    private Long id;
+    
+    /**
+     * 商品名称
+     */
+    private String name;
+    
+    /**
+     * 描述摘要
+     */
+    private String summary;
+    
+    /**
+     * 分类 ID
+     */
+    private Long categoryId;
+    
+    /**
+     * 价格
+     */
+    private BigDecimal price;
+    
+    /**
+     * 库存数量
+     */
+    private Integer stockQuantity;
+    
+    /**
+     * 状态
+     */
+    private String status;
+    
+    /**
+     * 图片 URL
+     */
+    private String imageUrl;
+    
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+    
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
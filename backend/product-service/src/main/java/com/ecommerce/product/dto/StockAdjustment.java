@@ -0,0 +1,26 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 库存调整项
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustment {
+    
+    /**
+     * 商品 ID
+     */
+    private Long productId;
+    
+    /**
+     * 调整数量（正数入库，负数扣减）
+     */
+    private Integer quantity;
+}
@@ -20,8 +20,13 @@ import java.time.LocalDateTime;
 @Table(name = "products")
 public class Product {
     
+    /**
+     * 使用序列 + pooled 优化器分配 ID，使 Hibernate 可以批量插入；
+     * 序列步长必须与 allocationSize 一致
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_id_seq")
+    @SequenceGenerator(name = "products_id_seq", sequenceName = "products_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, length = 255)
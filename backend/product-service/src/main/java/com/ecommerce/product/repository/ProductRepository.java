@@ -1,17 +1,32 @@
 package com.ecommerce.product.repository;
 
+import com.ecommerce.product.dto.ProductSummaryDto;
 import com.ecommerce.product.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * 商品仓储接口
  */
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     
+    /**
+     * 列表投影查询：只取列表需要的列，描述截取前 120 个字符，结果不进入持久化上下文
+     */
+    String SUMMARY_SELECT = "SELECT new com.ecommerce.product.dto.ProductSummaryDto(" +
+            "p.id, p.name, SUBSTRING(p.description, 1, 120), p.categoryId, p.price, " +
+            "p.stockQuantity, p.status, p.imageUrl, p.createdAt, p.updatedAt) FROM Product p ";
+    
     /**
      * 根据分类 ID 查询商品
      */
@@ -26,4 +41,90 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * 根据状态查询商品
      */
     Page<Product> findByStatus(String status, Pageable pageable);
+    
+    /**
+     * 游标分页：第一页（不执行 COUNT 查询，加载完整实体，用于索引重建）
+     */
+    @Query("SELECT p FROM Product p ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findFirstPage(Pageable pageable);
+    
+    /**
+     * 游标分页：从 (createdAt, id) 之后继续查询
+     */
+    @Query("SELECT p FROM Product p " +
+            "WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                @Param("id") Long id,
+                                Pageable pageable);
+    
+    /**
+     * 分页查询商品列表投影
+     */
+    @Query(value = SUMMARY_SELECT,
+            countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<ProductSummaryDto> findAllSummaries(Pageable pageable);
+    
+    /**
+     * 根据分类 ID 分页查询商品列表投影
+     */
+    @Query(value = SUMMARY_SELECT + "WHERE p.categoryId = :categoryId",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.categoryId = :categoryId")
+    Page<ProductSummaryDto> findSummariesByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+    
+    /**
+     * 根据名称模糊查询商品列表投影
+     */
+    @Query(value = SUMMARY_SELECT + "WHERE p.name LIKE CONCAT('%', :name, '%')",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.name LIKE CONCAT('%', :name, '%')")
+    Page<ProductSummaryDto> findSummariesByNameContaining(@Param("name") String name, Pageable pageable);
+    
+    /**
+     * 根据 ID 批量查询商品列表投影
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.id IN :ids")
+    List<ProductSummaryDto> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 游标分页：列表投影第一页
+     */
+    @Query(SUMMARY_SELECT + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductSummaryDto> findFirstSummaryPage(Pageable pageable);
+    
+    /**
+     * 游标分页：列表投影从 (createdAt, id) 之后继续查询
+     */
+    @Query(SUMMARY_SELECT +
+            "WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductSummaryDto> findSummaryPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
+    
+    /**
+     * 游标分页：分类下的列表投影第一页
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.categoryId = :categoryId ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductSummaryDto> findFirstSummaryPageByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+    
+    /**
+     * 游标分页：分类下的列表投影从 (createdAt, id) 之后继续查询
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.categoryId = :categoryId " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductSummaryDto> findSummaryPageAfterByCategoryId(@Param("categoryId") Long categoryId,
+                                                             @Param("createdAt") LocalDateTime createdAt,
+                                                             @Param("id") Long id,
+                                                             Pageable pageable);
+    
+    /**
+     * 原子调整库存，调整后库存为负时不更新
+     *
+     * @return 受影响行数，0 表示商品不存在或库存不足
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :delta, p.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE p.id = :id AND p.stockQuantity + :delta >= 0")
+    int adjustStock(@Param("id") Long id, @Param("delta") int delta);
 }
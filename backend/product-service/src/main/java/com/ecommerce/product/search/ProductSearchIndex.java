@@ -0,0 +1,509 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品内存倒排索引
+ * <p>
+ * 对商品名称和描述建立倒排表，按 BM25 打分。启动时从数据库全量重建，
+ * 之后随商品写操作增量更新，并通过 Redis 频道通知其他副本从数据库重新加载变更的商品。
+ * <p>
+ * 查询的最后一个字母数字词按前缀匹配（如 "iph" 命中 "iphone"），以支持边输入边搜索；
+ * 其余查询词需完整命中。字母数字词另存一份有序词典，前缀查找为一次范围扫描。
+ * <p>
+ * 全量重建在单独的后台线程中串行执行，执行期间到达的重建请求合并为之后的一次；
+ * 扫描期间的增量更新仍写入旧索引，同时记录商品 ID，新索引替换旧索引后再逐个补偿加载。
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex implements MessageListener {
+    
+    /**
+     * 索引刷新广播频道
+     */
+    public static final String REFRESH_CHANNEL = "product:index:refresh";
+    
+    /**
+     * 全量重建消息
+     */
+    private static final String REBUILD_MESSAGE = "rebuild";
+    
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    
+    /**
+     * 名称字段权重（名称中的词按该倍数计入词频）
+     */
+    private static final int NAME_WEIGHT = 3;
+    
+    /**
+     * 前缀最多展开的词数（按字典序），避免过短的前缀扫描大量倒排表
+     */
+    private static final int MAX_PREFIX_EXPANSIONS = 100;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Value("${product.search.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+    
+    @Value("${product.search.rebuild-retry-initial-backoff:1s}")
+    private Duration retryInitialBackoff;
+    
+    @Value("${product.search.rebuild-retry-max-backoff:5m}")
+    private Duration retryMaxBackoff;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private IndexData data = new IndexData();
+    
+    private volatile boolean ready = false;
+    
+    /**
+     * 是否正在全量扫描（由写锁保护）
+     */
+    private boolean rebuilding = false;
+    
+    /**
+     * 扫描期间发生变更的商品，替换索引后补偿加载（由写锁保护）
+     */
+    private final Set<Long> dirtyDuringRebuild = new HashSet<>();
+    
+    /**
+     * 有尚未开始执行的重建请求
+     */
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    
+    /**
+     * 重建线程是否在运行，保证同一时刻只有一个重建
+     */
+    private final AtomicBoolean rebuildRunning = new AtomicBoolean();
+    
+    /**
+     * 索引是否已完成首次构建
+     */
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * 应用启动后在后台全量重建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        startRebuild();
+    }
+    
+    private void startRebuild() {
+        rebuildRequested.set(true);
+        if (rebuildRunning.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::runRebuilds, "product-index-rebuild");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+    
+    /**
+     * 依次执行排队的重建请求，失败时按指数退避重试直到成功
+     */
+    private void runRebuilds() {
+        try {
+            Duration backoff = retryInitialBackoff;
+            while (rebuildRequested.getAndSet(false)) {
+                try {
+                    rebuild();
+                    backoff = retryInitialBackoff;
+                } catch (Exception e) {
+                    log.error("商品搜索索引重建失败, {}ms 后重试: {}", backoff.toMillis(), e.getMessage());
+                    rebuildRequested.set(true);
+                    Thread.sleep(backoff.toMillis());
+                    Duration next = backoff.multipliedBy(2);
+                    backoff = next.compareTo(retryMaxBackoff) < 0 ? next : retryMaxBackoff;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            rebuildRunning.set(false);
+        }
+        // 退出循环与清除运行标记之间到达的请求不会启动新线程，这里补上
+        if (rebuildRequested.get()) {
+            startRebuild();
+        }
+    }
+    
+    /**
+     * 请求所有副本（包括本副本）在后台全量重建索引，用于批量导入等绕过增量更新的写入
+     */
+    public void requestRebuild() {
+        try {
+            redisTemplate.convertAndSend(REFRESH_CHANNEL, REBUILD_MESSAGE);
+        } catch (Exception e) {
+            log.warn("广播索引重建失败, 仅重建本副本: {}", e.getMessage());
+            startRebuild();
+        }
+    }
+    
+    /**
+     * 从数据库全量重建索引，只在重建线程中调用
+     */
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            dirtyDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        IndexData fresh = new IndexData();
+        try {
+            Pageable limit = PageRequest.of(0, rebuildBatchSize);
+            List<Product> batch = productRepository.findFirstPage(limit);
+            while (!batch.isEmpty()) {
+                for (Product product : batch) {
+                    fresh.add(product);
+                }
+                if (batch.size() < rebuildBatchSize) {
+                    break;
+                }
+                Product last = batch.get(batch.size() - 1);
+                batch = productRepository.findPageAfter(last.getCreatedAt(), last.getId(), limit);
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                dirtyDuringRebuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        
+        List<Long> dirty;
+        lock.writeLock().lock();
+        try {
+            data = fresh;
+            ready = true;
+            rebuilding = false;
+            dirty = new ArrayList<>(dirtyDuringRebuild);
+            dirtyDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        for (Long productId : dirty) {
+            try {
+                reload(productId);
+            } catch (Exception e) {
+                log.warn("补偿加载商品索引失败: {}, {}", productId, e.getMessage());
+            }
+        }
+        log.info("商品搜索索引重建完成, 文档数: {}, 耗时: {}ms",
+                fresh.docLengths.size(), System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * 索引或更新商品（事务中调用时延迟到提交后执行）
+     */
+    public void index(Product product) {
+        Long productId = product.getId();
+        String name = product.getName();
+        String description = product.getDescription();
+        afterCommit(() -> {
+            applyIndex(productId, name, description);
+            publish(productId);
+        });
+    }
+    
+    /**
+     * 从索引中移除商品（事务中调用时延迟到提交后执行）
+     */
+    public void remove(Long productId) {
+        afterCommit(() -> {
+            applyRemove(productId);
+            publish(productId);
+        });
+    }
+    
+    /**
+     * 搜索商品，所有查询词都必须命中（最后一个字母数字词按前缀命中），按 BM25 得分降序返回
+     */
+    public SearchHits search(String keyword, int offset, int limit) {
+        List<String> terms = Tokenizer.tokenizeQuery(keyword).stream().distinct().toList();
+        if (terms.isEmpty()) {
+            return new SearchHits(Collections.emptyList(), 0);
+        }
+        String last = terms.get(terms.size() - 1);
+        String prefix = Tokenizer.isAlphanumeric(last) ? last : null;
+        
+        lock.readLock().lock();
+        try {
+            // 每个查询词对应一组倒排表：完整词只有一个，前缀为展开出的各个词
+            List<List<Map<Long, Integer>>> clauses = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                List<Map<Long, Integer>> clause = term.equals(prefix) ? data.expand(prefix) : data.lookup(term);
+                if (clause.isEmpty()) {
+                    return new SearchHits(Collections.emptyList(), 0);
+                }
+                clauses.add(clause);
+            }
+            // 从最短的倒排表开始求交集
+            clauses.sort(Comparator.comparingInt(ProductSearchIndex::postingCount));
+            
+            int docCount = data.docLengths.size();
+            double avgLength = docCount == 0 ? 0 : (double) data.totalLength / docCount;
+            Map<Long, Double> scores = new HashMap<>();
+            for (Map<Long, Integer> candidates : clauses.get(0)) {
+                outer:
+                for (Long productId : candidates.keySet()) {
+                    if (scores.containsKey(productId)) {
+                        continue;
+                    }
+                    double score = 0;
+                    int docLength = data.docLengths.get(productId);
+                    for (List<Map<Long, Integer>> clause : clauses) {
+                        // 前缀展开出的多个词都命中时取得分最高的一个
+                        double best = -1;
+                        for (Map<Long, Integer> postings : clause) {
+                            Integer tf = postings.get(productId);
+                            if (tf != null) {
+                                double idf = Math.log(1 + (docCount - postings.size() + 0.5) / (postings.size() + 0.5));
+                                best = Math.max(best, idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * docLength / avgLength)));
+                            }
+                        }
+                        if (best < 0) {
+                            continue outer;
+                        }
+                        score += best;
+                    }
+                    scores.put(productId, score);
+                }
+            }
+            
+            List<Long> ranked = scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey(Collections.reverseOrder())))
+                    .skip(offset)
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            return new SearchHits(ranked, scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private static int postingCount(List<Map<Long, Integer>> clause) {
+        int count = 0;
+        for (Map<Long, Integer> postings : clause) {
+            count += postings.size();
+        }
+        return count;
+    }
+    
+    /**
+     * 接收其他副本的刷新广播，从数据库重新加载该商品
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (REBUILD_MESSAGE.equals(body)) {
+            startRebuild();
+            return;
+        }
+        try {
+            reload(Long.valueOf(body));
+        } catch (NumberFormatException e) {
+            log.warn("无效的索引刷新消息: {}", body);
+        } catch (Exception e) {
+            log.warn("刷新商品索引失败: {}, {}", body, e.getMessage());
+        }
+    }
+    
+    private void reload(Long productId) {
+        productRepository.findById(productId).ifPresentOrElse(
+                product -> applyIndex(product.getId(), product.getName(), product.getDescription()),
+                () -> applyRemove(productId));
+    }
+    
+    private void applyIndex(Long productId, String name, String description) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                dirtyDuringRebuild.add(productId);
+            }
+            data.remove(productId);
+            data.add(productId, name, description);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void applyRemove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                dirtyDuringRebuild.add(productId);
+            }
+            data.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void publish(Long productId) {
+        try {
+            redisTemplate.convertAndSend(REFRESH_CHANNEL, String.valueOf(productId));
+        } catch (Exception e) {
+            log.warn("广播索引刷新失败: {}, {}", productId, e.getMessage());
+        }
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    /**
+     * 索引数据（非线程安全，由外层读写锁保护）
+     */
+    private static class IndexData {
+        
+        /**
+         * 词 -> (商品 ID -> 加权词频)
+         */
+        private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+        
+        /**
+         * 字母数字词的有序词典，用于前缀查找
+         */
+        private final NavigableSet<String> alphanumericTerms = new TreeSet<>();
+        
+        /**
+         * 商品 ID -> 文档长度
+         */
+        private final Map<Long, Integer> docLengths = new HashMap<>();
+        
+        /**
+         * 商品 ID -> 包含的词，用于删除
+         */
+        private final Map<Long, Set<String>> docTerms = new HashMap<>();
+        
+        private long totalLength;
+        
+        void add(Product product) {
+            add(product.getId(), product.getName(), product.getDescription());
+        }
+        
+        void add(Long productId, String name, String description) {
+            Map<String, Integer> termFrequencies = new HashMap<>();
+            for (String term : Tokenizer.tokenizeDocument(name)) {
+                termFrequencies.merge(term, NAME_WEIGHT, Integer::sum);
+            }
+            for (String term : Tokenizer.tokenizeDocument(description)) {
+                termFrequencies.merge(term, 1, Integer::sum);
+            }
+            
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), this::newPostings)
+                        .put(productId, entry.getValue());
+                length += entry.getValue();
+            }
+            docLengths.put(productId, length);
+            docTerms.put(productId, termFrequencies.keySet());
+            totalLength += length;
+        }
+        
+        void remove(Long productId) {
+            Set<String> terms = docTerms.remove(productId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                Map<Long, Integer> termPostings = postings.get(term);
+                if (termPostings != null) {
+                    termPostings.remove(productId);
+                    if (termPostings.isEmpty()) {
+                        postings.remove(term);
+                        alphanumericTerms.remove(term);
+                    }
+                }
+            }
+            totalLength -= docLengths.remove(productId);
+        }
+        
+        /**
+         * 完整词的倒排表，未命中时返回空列表
+         */
+        List<Map<Long, Integer>> lookup(String term) {
+            Map<Long, Integer> termPostings = postings.get(term);
+            return termPostings != null ? List.of(termPostings) : List.of();
+        }
+        
+        /**
+         * 以 prefix 开头的各个词的倒排表（含 prefix 本身）
+         */
+        List<Map<Long, Integer>> expand(String prefix) {
+            List<Map<Long, Integer>> expansions = new ArrayList<>();
+            for (String term : alphanumericTerms.subSet(prefix, true, prefix + Character.MAX_VALUE, false)) {
+                expansions.add(postings.get(term));
+                if (expansions.size() == MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+            }
+            return expansions;
+        }
+        
+        private Map<Long, Integer> newPostings(String term) {
+            if (Tokenizer.isAlphanumeric(term)) {
+                alphanumericTerms.add(term);
+            }
+            return new HashMap<>();
+        }
+    }
+}
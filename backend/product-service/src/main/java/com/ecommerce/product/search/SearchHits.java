@@ -0,0 +1,24 @@
+package com.ecommerce.product.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 搜索命中结果
+ */
+@Data
+@AllArgsConstructor
+public class SearchHits {
+    
+    /**
+     * 当前页命中的商品 ID（按相关度降序）
+     */
+    private List<Long> productIds;
+    
+    /**
+     * 命中总数
+     */
+    private long total;
+}
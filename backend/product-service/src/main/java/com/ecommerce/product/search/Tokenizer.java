@@ -0,0 +1,90 @@
+package com.ecommerce.product.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 搜索分词器
+ * <p>
+ * 字母数字连续串作为一个词（转小写）；中日韩字符连续串切分为二元组（bigram），
+ * 建索引时额外输出单字，以便单字查询也能命中。
+ */
+public final class Tokenizer {
+    
+    private Tokenizer() {
+    }
+    
+    /**
+     * 对文档内容分词
+     */
+    public static List<String> tokenizeDocument(String text) {
+        return tokenize(text, true);
+    }
+    
+    /**
+     * 对查询关键字分词
+     */
+    public static List<String> tokenizeQuery(String text) {
+        return tokenize(text, false);
+    }
+    
+    private static List<String> tokenize(String text, boolean withUnigrams) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (isCjk(c)) {
+                int start = i;
+                while (i < length && isCjk(text.charAt(i))) {
+                    i++;
+                }
+                emitCjk(text, start, i, withUnigrams, tokens);
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < length && Character.isLetterOrDigit(text.charAt(i)) && !isCjk(text.charAt(i))) {
+                    i++;
+                }
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+    
+    /**
+     * 是否为字母数字词（而非中日韩字符组成的词）
+     */
+    static boolean isAlphanumeric(String term) {
+        return !term.isEmpty() && !isCjk(term.charAt(0));
+    }
+    
+    private static void emitCjk(String text, int start, int end, boolean withUnigrams, List<String> tokens) {
+        if (end - start == 1) {
+            tokens.add(text.substring(start, end));
+            return;
+        }
+        for (int j = start; j < end; j++) {
+            if (withUnigrams) {
+                tokens.add(text.substring(j, j + 1));
+            }
+            if (j + 1 < end) {
+                tokens.add(text.substring(j, j + 2));
+            }
+        }
+    }
+    
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
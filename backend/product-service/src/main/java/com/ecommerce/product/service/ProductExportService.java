@@ -0,0 +1,22 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.ExportFormat;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+/**
+ * 商品导出服务接口
+ */
+public interface ProductExportService {
+    
+    /**
+     * 以流式方式导出商品到输出流
+     *
+     * @param format     导出格式
+     * @param categoryId 分类 ID，为 null 时导出全部分类
+     * @param since      只导出 updatedAt 不早于该时间的商品，为 null 时全量导出
+     * @param out        输出流
+     */
+    void export(ExportFormat format, Long categoryId, LocalDateTime since, OutputStream out);
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.ExportFormat;
+import com.ecommerce.product.dto.ImportResult;
+
+import java.io.InputStream;
+
+/**
+ * 商品批量导入服务接口
+ */
+public interface ProductImportService {
+    
+    /**
+     * 从输入流批量导入商品，单行失败不影响其他行
+     *
+     * @param format 数据格式（与导出格式一致）
+     * @param in     输入流
+     */
+    ImportResult importProducts(ExportFormat format, InputStream in);
+}
@@ -1,9 +1,14 @@
 package com.ecommerce.product.service;
 
+import com.ecommerce.product.dto.CursorPage;
 import com.ecommerce.product.dto.ProductDto;
+import com.ecommerce.product.dto.ProductSummaryDto;
+import com.ecommerce.product.dto.StockAdjustment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 /**
  * 商品服务接口
  */
@@ -19,20 +24,37 @@ public interface ProductService {
      */
     ProductDto getProductById(Long productId);
     
+    /**
+     * 根据 ID 列表批量获取商品
+     * <p>
+     * 返回结果与入参顺序一一对应，不存在的商品对应位置为 null。
+     */
+    List<ProductDto> getProductsByIds(List<Long> productIds);
+    
     /**
      * 分页查询所有商品
      */
-    Page<ProductDto> getAllProducts(Pageable pageable);
+    Page<ProductSummaryDto> getAllProducts(Pageable pageable);
+    
+    /**
+     * 游标分页查询所有商品
+     */
+    CursorPage<ProductSummaryDto> getAllProducts(String cursor, int size);
     
     /**
      * 根据分类 ID 查询商品
      */
-    Page<ProductDto> getProductsByCategory(Long categoryId, Pageable pageable);
+    Page<ProductSummaryDto> getProductsByCategory(Long categoryId, Pageable pageable);
+    
+    /**
+     * 根据分类 ID 游标分页查询商品
+     */
+    CursorPage<ProductSummaryDto> getProductsByCategory(Long categoryId, String cursor, int size);
     
     /**
      * 搜索商品
      */
-    Page<ProductDto> searchProducts(String keyword, Pageable pageable);
+    Page<ProductSummaryDto> searchProducts(String keyword, Pageable pageable);
     
     /**
      * 更新商品
@@ -48,4 +70,9 @@ public interface ProductService {
      * 更新库存
      */
     void updateStock(Long productId, Integer quantity);
+    
+    /**
+     * 批量更新库存（全部成功或全部回滚）
+     */
+    void updateStockBatch(List<StockAdjustment> adjustments);
 }
@@ -0,0 +1,213 @@
+package com.ecommerce.product.service.impl;
+
+import com.ecommerce.product.dto.ExportFormat;
+import com.ecommerce.product.service.ProductExportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 商品导出服务实现
+ * <p>
+ * 通过只进游标按固定 fetch size 读取 products 表，逐行写入输出流，
+ * 不构建中间集合，内存占用与商品总数无关。PostgreSQL 只有在非自动提交模式下才会按 fetch size 分批拉取，
+ * 因此导出必须运行在事务中。
+ */
+@Slf4j
+@Service
+public class ProductExportServiceImpl implements ProductExportService {
+    
+    private static final String[] COLUMNS = {
+            "id", "name", "description", "category_id", "price", "stock_quantity",
+            "status", "image_url", "created_at", "updated_at"
+    };
+    
+    private static final String[] FIELDS = {
+            "id", "name", "description", "categoryId", "price", "stockQuantity",
+            "status", "imageUrl", "createdAt", "updatedAt"
+    };
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${product.export.fetch-size:1000}")
+    private int fetchSize;
+    
+    private JdbcTemplate cursorJdbcTemplate;
+    
+    @PostConstruct
+    public void init() {
+        cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        cursorJdbcTemplate.setFetchSize(fetchSize);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public void export(ExportFormat format, Long categoryId, LocalDateTime since, OutputStream out) {
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(String.join(", ", COLUMNS))
+                .append(" FROM products WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (categoryId != null) {
+            sql.append(" AND category_id = ?");
+            args.add(categoryId);
+        }
+        if (since != null) {
+            sql.append(" AND updated_at >= ?");
+            args.add(Timestamp.valueOf(since));
+        }
+        sql.append(" ORDER BY id");
+        
+        long start = System.currentTimeMillis();
+        try {
+            RowWriter rowWriter = format == ExportFormat.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+            CountingHandler handler = new CountingHandler(rowWriter);
+            cursorJdbcTemplate.query(sql.toString(), handler, args.toArray());
+            rowWriter.close();
+            log.info("商品导出完成, 格式: {}, 行数: {}, 耗时: {}ms",
+                    format, handler.count, System.currentTimeMillis() - start);
+        } catch (IOException | UncheckedIOException e) {
+            // 客户端中断连接时直接结束导出
+            log.warn("商品导出中断: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 逐行写出并计数
+     */
+    private static class CountingHandler implements RowCallbackHandler {
+        
+        private final RowWriter rowWriter;
+        
+        private long count;
+        
+        CountingHandler(RowWriter rowWriter) {
+            this.rowWriter = rowWriter;
+        }
+        
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                rowWriter.write(rs);
+                count++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+    
+    private interface RowWriter {
+        
+        void write(ResultSet rs) throws SQLException, IOException;
+        
+        void close() throws IOException;
+    }
+    
+    /**
+     * NDJSON 行写出器
+     */
+    private class NdjsonRowWriter implements RowWriter {
+        
+        private final JsonGenerator generator;
+        
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            // 由 Servlet 容器负责关闭响应流；每行之间只用换行分隔
+            this.generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            this.generator.setRootValueSeparator(null);
+        }
+        
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                Object value = rs.getObject(i + 1);
+                generator.writeFieldName(FIELDS[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Timestamp timestamp) {
+                    generator.writeString(timestamp.toLocalDateTime().toString());
+                } else {
+                    generator.writeObject(value);
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+    
+    /**
+     * CSV 行写出器
+     */
+    private static class CsvRowWriter implements RowWriter {
+        
+        private final Writer writer;
+        
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            // 写入 BOM，便于 Excel 正确识别 UTF-8 中文
+            writer.write('\uFEFF');
+            writer.write(String.join(",", FIELDS));
+            writer.write('\n');
+        }
+        
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = rs.getObject(i + 1);
+                if (value instanceof Timestamp timestamp) {
+                    writer.write(timestamp.toLocalDateTime().toString());
+                } else if (value != null) {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write('\n');
+        }
+        
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+        
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+    }
+}
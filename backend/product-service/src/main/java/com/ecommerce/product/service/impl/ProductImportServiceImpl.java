@@ -0,0 +1,528 @@
+package com.ecommerce.product.service.impl;
+
+import com.ecommerce.common.exception.BusinessException;
+import com.ecommerce.product.cache.ProductResponseCache;
+import com.ecommerce.product.dto.ExportFormat;
+import com.ecommerce.product.dto.ImportResult;
+import com.ecommerce.product.dto.ImportRowError;
+import com.ecommerce.product.dto.ProductDto;
+import com.ecommerce.product.search.ProductSearchIndex;
+import com.ecommerce.product.service.ProductImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 商品批量导入服务实现
+ * <p>
+ * 流式读取上传内容，按块（chunk）处理：块内各行在专用线程池中并行解析和校验，
+ * 合法行通过 PostgreSQL COPY 一次写入；COPY 因数据库约束失败时，该块退化为逐行插入以定位出错行。
+ * 每块单独提交，单行失败不会中断整个导入。
+ * <p>
+ * 商品 ID 按块从 {@code products_id_seq} 预留：每次 nextval 取得一段 50 个 ID，与 Hibernate pooled 优化器的
+ * 分配方式相同，而不是每行使用一次列默认值（序列步长为 50，逐行 nextval 会让每行消耗 50 个 ID）。
+ */
+@Slf4j
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+    
+    private static final String COPY_SQL =
+            "COPY products (id, name, description, category_id, price, stock_quantity, status, image_url, " +
+            "created_at, updated_at) FROM STDIN WITH (FORMAT csv)";
+    
+    private static final String INSERT_SQL =
+            "INSERT INTO products (id, name, description, category_id, price, stock_quantity, status, image_url, " +
+            "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final String RESERVE_IDS_SQL = "SELECT nextval('products_id_seq') FROM generate_series(1, ?)";
+    
+    /**
+     * 每次 nextval 取得的 ID 段长度，即 (值 - 50, 值]；须与序列步长及 Product 的 allocationSize 一致
+     */
+    private static final int ID_BLOCK_SIZE = 50;
+    
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    
+    @Autowired
+    private ProductResponseCache productResponseCache;
+    
+    @Value("${product.import.chunk-size:5000}")
+    private int chunkSize;
+    
+    @Value("${product.import.parallelism:0}")
+    private int parallelism;
+    
+    @Value("${product.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+    
+    private ForkJoinPool validationPool;
+    
+    @PostConstruct
+    public void init() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        validationPool = new ForkJoinPool(threads);
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        validationPool.shutdown();
+    }
+    
+    @Override
+    public ImportResult importProducts(ExportFormat format, InputStream in) {
+        long start = System.currentTimeMillis();
+        long total = 0;
+        long imported = 0;
+        long failed = 0;
+        List<ImportRowError> errors = new ArrayList<>();
+        
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            RecordReader records = format == ExportFormat.CSV ? new CsvRecordReader(reader) : new NdjsonRecordReader(reader);
+            List<RawRecord> chunk = new ArrayList<>(chunkSize);
+            RawRecord record;
+            while ((record = records.next()) != null) {
+                chunk.add(record);
+                if (chunk.size() >= chunkSize) {
+                    long[] counts = processChunk(records, chunk, errors);
+                    imported += counts[0];
+                    failed += counts[1];
+                    total += chunk.size();
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                long[] counts = processChunk(records, chunk, errors);
+                imported += counts[0];
+                failed += counts[1];
+                total += chunk.size();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new BusinessException(400, "读取导入数据失败: " + e.getMessage());
+        }
+        
+        if (imported > 0) {
+            productSearchIndex.requestRebuild();
+            productResponseCache.clear();
+        }
+        long duration = System.currentTimeMillis() - start;
+        log.info("商品批量导入完成, 总行数: {}, 成功: {}, 失败: {}, 耗时: {}ms", total, imported, failed, duration);
+        
+        return ImportResult.builder()
+                .totalRows(total)
+                .importedRows(imported)
+                .failedRows(failed)
+                .errors(errors)
+                .durationMs(duration)
+                .build();
+    }
+    
+    /**
+     * 并行校验一个块并写入数据库，返回 [成功数, 失败数]
+     */
+    private long[] processChunk(RecordReader records, List<RawRecord> chunk, List<ImportRowError> errors) {
+        List<ValidatedRow> rows;
+        try {
+            rows = validationPool.submit(() -> chunk.parallelStream()
+                    .map(record -> validate(records, record))
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(500, "导入被中断");
+        } catch (ExecutionException e) {
+            throw new BusinessException(500, "校验导入数据失败: " + e.getCause().getMessage());
+        }
+        
+        List<ValidatedRow> valid = new ArrayList<>(rows.size());
+        long failed = 0;
+        for (ValidatedRow row : rows) {
+            if (row.error != null) {
+                failed++;
+                addError(errors, row.line, row.error);
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return new long[]{0, failed};
+        }
+        
+        long[] ids = reserveIds(valid.size());
+        try {
+            copyChunk(valid, ids);
+            return new long[]{valid.size(), failed};
+        } catch (RuntimeException e) {
+            log.warn("COPY 写入失败, 退化为逐行插入: {}", e.getMessage());
+        }
+        
+        long imported = 0;
+        for (int i = 0; i < valid.size(); i++) {
+            ValidatedRow row = valid.get(i);
+            try {
+                ProductDto p = row.product;
+                jdbcTemplate.update(INSERT_SQL, ids[i], p.getName(), p.getDescription(), p.getCategoryId(), p.getPrice(),
+                        p.getStockQuantity(), p.getStatus(), p.getImageUrl(), row.now, row.now);
+                imported++;
+            } catch (DataAccessException e) {
+                failed++;
+                addError(errors, row.line, e.getMostSpecificCause().getMessage());
+            }
+        }
+        return new long[]{imported, failed};
+    }
+    
+    /**
+     * 为 count 行预留商品 ID，每段 50 个
+     */
+    private long[] reserveIds(int count) {
+        long[] ids = new long[count];
+        int assigned = 0;
+        while (assigned < count) {
+            int blocks = (count - assigned + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+            for (Long high : jdbcTemplate.queryForList(RESERVE_IDS_SQL, Long.class, blocks)) {
+                // 新建序列的首个值（1）之前不足一段，跳过
+                if (high < ID_BLOCK_SIZE) {
+                    continue;
+                }
+                for (long id = high - ID_BLOCK_SIZE + 1; id <= high && assigned < count; id++) {
+                    ids[assigned++] = id;
+                }
+            }
+        }
+        return ids;
+    }
+    
+    /**
+     * 在一个事务中通过 COPY 写入整块数据
+     */
+    private void copyChunk(List<ValidatedRow> rows, long[] ids) {
+        StringBuilder csv = new StringBuilder(rows.size() * 128);
+        for (int i = 0; i < rows.size(); i++) {
+            ValidatedRow row = rows.get(i);
+            ProductDto p = row.product;
+            csv.append(ids[i]).append(',');
+            appendCsv(csv, p.getName()).append(',');
+            appendCsv(csv, p.getDescription()).append(',');
+            csv.append(p.getCategoryId()).append(',');
+            csv.append(p.getPrice().toPlainString()).append(',');
+            csv.append(p.getStockQuantity()).append(',');
+            appendCsv(csv, p.getStatus()).append(',');
+            appendCsv(csv, p.getImageUrl()).append(',');
+            csv.append(row.now).append(',');
+            csv.append(row.now).append('\n');
+        }
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try {
+                CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+                copyManager.copyIn(COPY_SQL, new StringReader(csv.toString()));
+            } catch (SQLException | IOException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+        });
+    }
+    
+    /**
+     * 解析并校验单行
+     */
+    private ValidatedRow validate(RecordReader records, RawRecord record) {
+        ProductDto product;
+        try {
+            product = records.parse(record);
+        } catch (Exception e) {
+            return ValidatedRow.error(record.line, "格式错误: " + e.getMessage());
+        }
+        
+        String error = null;
+        if (product.getName() == null || product.getName().isBlank()) {
+            error = "商品名称不能为空";
+        } else if (product.getName().length() > 255) {
+            error = "商品名称超过 255 个字符";
+        } else if (product.getCategoryId() == null) {
+            error = "分类 ID 不能为空";
+        } else if (product.getPrice() == null) {
+            error = "价格不能为空";
+        } else if (product.getPrice().signum() < 0 || product.getPrice().compareTo(MAX_PRICE) > 0
+                || product.getPrice().scale() > 2) {
+            error = "价格不合法";
+        } else if (product.getStockQuantity() != null && product.getStockQuantity() < 0) {
+            error = "库存不能为负数";
+        } else if (product.getStatus() != null && product.getStatus().length() > 20) {
+            error = "状态超过 20 个字符";
+        } else if (product.getImageUrl() != null && product.getImageUrl().length() > 255) {
+            error = "图片 URL 超过 255 个字符";
+        }
+        if (error != null) {
+            return ValidatedRow.error(record.line, error);
+        }
+        
+        if (product.getStockQuantity() == null) {
+            product.setStockQuantity(0);
+        }
+        if (product.getStatus() == null || product.getStatus().isEmpty()) {
+            product.setStatus("active");
+        }
+        return new ValidatedRow(record.line, product, null, Timestamp.valueOf(LocalDateTime.now()));
+    }
+    
+    private void addError(List<ImportRowError> errors, long line, String message) {
+        if (errors.size() < maxReportedErrors) {
+            errors.add(ImportRowError.builder().line(line).message(message).build());
+        }
+    }
+    
+    private static StringBuilder appendCsv(StringBuilder csv, String value) {
+        // COPY 的 CSV 格式中未加引号的空字段表示 NULL
+        if (value == null) {
+            return csv;
+        }
+        return csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+    
+    /**
+     * 原始记录
+     */
+    @AllArgsConstructor
+    private static class RawRecord {
+        private final long line;
+        private final String json;
+        private final List<String> fields;
+    }
+    
+    /**
+     * 校验后的记录
+     */
+    @AllArgsConstructor
+    private static class ValidatedRow {
+        private final long line;
+        private final ProductDto product;
+        private final String error;
+        private final Timestamp now;
+        
+        static ValidatedRow error(long line, String error) {
+            return new ValidatedRow(line, null, error, null);
+        }
+    }
+    
+    /**
+     * 记录读取器：顺序读取原始记录，解析可在任意线程中进行
+     */
+    private interface RecordReader {
+        
+        RawRecord next() throws IOException;
+        
+        ProductDto parse(RawRecord record) throws IOException;
+    }
+    
+    /**
+     * NDJSON 读取器，跳过空行
+     */
+    private class NdjsonRecordReader implements RecordReader {
+        
+        private final BufferedReader reader;
+        
+        private long line;
+        
+        NdjsonRecordReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+        
+        @Override
+        public RawRecord next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (!text.isBlank()) {
+                    return new RawRecord(line, text, null);
+                }
+            }
+            return null;
+        }
+        
+        @Override
+        public ProductDto parse(RawRecord record) throws IOException {
+            return objectMapper.readValue(record.json, ProductDto.class);
+        }
+    }
+    
+    /**
+     * CSV 读取器（RFC 4180），首行为表头，列名与 {@link ProductDto} 字段名一致，未知列忽略
+     */
+    private static class CsvRecordReader implements RecordReader {
+        
+        private final BufferedReader reader;
+        
+        private final Map<String, Integer> header = new HashMap<>();
+        
+        /**
+         * 已读取的换行符数，引号内的换行也计入，使行号与文件中的物理行一致
+         */
+        private long newlines;
+        
+        /**
+         * 最近一条记录起始的物理行号
+         */
+        private long recordLine;
+        
+        CsvRecordReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> names = readRecord();
+            if (names == null) {
+                throw new BusinessException(400, "CSV 缺少表头");
+            }
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i).trim();
+                // 去掉导出文件中的 UTF-8 BOM
+                if (i == 0 && name.startsWith("\uFEFF")) {
+                    name = name.substring(1);
+                }
+                header.put(name, i);
+            }
+        }
+        
+        @Override
+        public RawRecord next() throws IOException {
+            List<String> fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+            return new RawRecord(recordLine, null, fields);
+        }
+        
+        @Override
+        public ProductDto parse(RawRecord record) {
+            return ProductDto.builder()
+                    .name(field(record, "name"))
+                    .description(field(record, "description"))
+                    .categoryId(toLong(field(record, "categoryId")))
+                    .price(toDecimal(field(record, "price")))
+                    .stockQuantity(toInteger(field(record, "stockQuantity")))
+                    .status(field(record, "status"))
+                    .imageUrl(field(record, "imageUrl"))
+                    .build();
+        }
+        
+        private String field(RawRecord record, String name) {
+            Integer index = header.get(name);
+            if (index == null || index >= record.fields.size()) {
+                return null;
+            }
+            String value = record.fields.get(index);
+            return value.isEmpty() ? null : value;
+        }
+        
+        private static Long toLong(String value) {
+            return value != null ? Long.valueOf(value.trim()) : null;
+        }
+        
+        private static Integer toInteger(String value) {
+            return value != null ? Integer.valueOf(value.trim()) : null;
+        }
+        
+        private static BigDecimal toDecimal(String value) {
+            return value != null ? new BigDecimal(value.trim()) : null;
+        }
+        
+        /**
+         * 读取一条记录，引号内允许出现逗号和换行
+         */
+        private List<String> readRecord() throws IOException {
+            int c = read();
+            while (c == '\r' || c == '\n') {
+                c = read();
+            }
+            if (c == -1) {
+                return null;
+            }
+            recordLine = newlines + 1;
+            
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r') {
+                    break;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+        
+        private int read() throws IOException {
+            int c = reader.read();
+            if (c == '\n') {
+                newlines++;
+            }
+            return c;
+        }
+    }
+}
@@ -1,16 +1,39 @@
 package com.ecommerce.product.service.impl;
 
 import com.ecommerce.common.exception.BusinessException;
+import com.ecommerce.product.cache.ProductCache;
+import com.ecommerce.product.cache.ProductResponseCache;
+import com.ecommerce.product.dto.CursorPage;
+import com.ecommerce.product.dto.ProductCursor;
 import com.ecommerce.product.dto.ProductDto;
+import com.ecommerce.product.dto.ProductSummaryDto;
+import com.ecommerce.product.dto.StockAdjustment;
 import com.ecommerce.product.entity.Product;
 import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.search.ProductSearchIndex;
+import com.ecommerce.product.search.SearchHits;
 import com.ecommerce.product.service.ProductService;
+import com.ecommerce.product.stock.FlashSaleStockEngine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 商品服务实现
@@ -20,9 +43,34 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class ProductServiceImpl implements ProductService {
     
+    private static final String ADJUST_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity + ?, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = ? AND stock_quantity + ? >= 0";
+    
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private FlashSaleStockEngine flashSaleStockEngine;
+    
+    @Value("${product.batch.max-size:100}")
+    private int maxBatchSize;
+    
+    @Value("${product.cursor.max-size:100}")
+    private int maxCursorSize;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private ProductResponseCache productResponseCache;
+    
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    
     @Override
     public ProductDto createProduct(ProductDto productDto) {
         Product product = Product.builder()
@@ -35,6 +83,8 @@ public class ProductServiceImpl implements ProductService {
                 .build();
         
         product = productRepository.save(product);
+        productSearchIndex.index(product);
+        productResponseCache.evictCategory(product.getCategoryId());
         log.info("商品创建成功: {}", product.getName());
         
         return convertToDto(product);
@@ -43,30 +93,95 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional(readOnly = true)
     public ProductDto getProductById(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new BusinessException(404, "商品不存在"));
-        return convertToDto(product);
+        ProductDto productDto = productCache.getOrLoad(productId, () -> productRepository.findById(productId)
+                .map(this::convertToDto)
+                .orElseThrow(() -> new BusinessException(404, "商品不存在")));
+        return withLiveStock(productDto);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductDto> getProductsByIds(List<Long> productIds) {
+        if (productIds.size() > maxBatchSize) {
+            throw new BusinessException(400, "单次最多查询 " + maxBatchSize + " 个商品");
+        }
+        
+        Map<Long, ProductDto> found = productCache.getAllOrLoad(productIds, misses ->
+                productRepository.findAllById(misses).stream()
+                        .map(this::convertToDto)
+                        .toList());
+        
+        List<ProductDto> result = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            ProductDto productDto = found.get(productId);
+            result.add(productDto != null ? withLiveStock(productDto) : null);
+        }
+        return result;
     }
     
     @Override
     @Transactional(readOnly = true)
-    public Page<ProductDto> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable)
-                .map(this::convertToDto);
+    public Page<ProductSummaryDto> getAllProducts(Pageable pageable) {
+        return productRepository.findAllSummaries(pageable);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public Page<ProductDto> getProductsByCategory(Long categoryId, Pageable pageable) {
-        return productRepository.findByCategoryId(categoryId, pageable)
-                .map(this::convertToDto);
+    public CursorPage<ProductSummaryDto> getAllProducts(String cursor, int size) {
+        checkCursorSize(size);
+        // 多取一条用于判断是否还有下一页
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<ProductSummaryDto> products;
+        if (cursor == null || cursor.isEmpty()) {
+            products = productRepository.findFirstSummaryPage(limit);
+        } else {
+            ProductCursor after = ProductCursor.decode(cursor);
+            products = productRepository.findSummaryPageAfter(after.getCreatedAt(), after.getId(), limit);
+        }
+        return toCursorPage(products, size);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public Page<ProductDto> searchProducts(String keyword, Pageable pageable) {
-        return productRepository.findByNameContaining(keyword, pageable)
-                .map(this::convertToDto);
+    public Page<ProductSummaryDto> getProductsByCategory(Long categoryId, Pageable pageable) {
+        return productRepository.findSummariesByCategoryId(categoryId, pageable);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ProductSummaryDto> getProductsByCategory(Long categoryId, String cursor, int size) {
+        checkCursorSize(size);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<ProductSummaryDto> products;
+        if (cursor == null || cursor.isEmpty()) {
+            products = productRepository.findFirstSummaryPageByCategoryId(categoryId, limit);
+        } else {
+            ProductCursor after = ProductCursor.decode(cursor);
+            products = productRepository.findSummaryPageAfterByCategoryId(
+                    categoryId, after.getCreatedAt(), after.getId(), limit);
+        }
+        return toCursorPage(products, size);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductSummaryDto> searchProducts(String keyword, Pageable pageable) {
+        // 索引尚未构建完成时退化为数据库模糊查询
+        if (!productSearchIndex.isReady()) {
+            return productRepository.findSummariesByNameContaining(keyword, pageable);
+        }
+        
+        SearchHits hits = productSearchIndex.search(keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        if (hits.getProductIds().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, hits.getTotal());
+        }
+        Map<Long, ProductSummaryDto> products = productRepository.findSummariesByIdIn(hits.getProductIds()).stream()
+                .collect(Collectors.toMap(ProductSummaryDto::getId, Function.identity()));
+        List<ProductSummaryDto> content = hits.getProductIds().stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, pageable, hits.getTotal());
     }
     
     @Override
@@ -91,6 +206,9 @@ public class ProductServiceImpl implements ProductService {
         }
         
         product = productRepository.save(product);
+        productCache.evict(productId);
+        productResponseCache.evictProduct(productId);
+        productSearchIndex.index(product);
         log.info("商品更新成功: {}", product.getName());
         
         return convertToDto(product);
@@ -102,22 +220,140 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new BusinessException(404, "商品不存在"));
         
         productRepository.delete(product);
+        productCache.evict(productId);
+        productResponseCache.evictProduct(productId);
+        productResponseCache.evictCategory(product.getCategoryId());
+        productSearchIndex.remove(productId);
         log.info("商品删除成功: {}", product.getName());
     }
     
     @Override
     public void updateStock(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new BusinessException(404, "商品不存在"));
+        // 热点商品走内存预占，由后台任务异步写回数据库
+        if (flashSaleStockEngine.isHot(productId)) {
+            flashSaleStockEngine.adjust(productId, quantity);
+            return;
+        }
         
-        int newStock = product.getStockQuantity() + quantity;
-        if (newStock < 0) {
+        // 单条条件更新，避免先查后写丢失并发更新
+        int updated = productRepository.adjustStock(productId, quantity);
+        if (updated == 0) {
+            if (!productRepository.existsById(productId)) {
+                throw new BusinessException(404, "商品不存在");
+            }
             throw new BusinessException(400, "库存不足");
         }
         
-        product.setStockQuantity(newStock);
-        productRepository.save(product);
-        log.info("商品库存更新: {}, 新库存: {}", product.getName(), newStock);
+        productCache.evict(productId);
+        productResponseCache.evictProduct(productId);
+        log.info("商品库存更新: {}, 调整数量: {}", productId, quantity);
+    }
+    
+    @Override
+    public void updateStockBatch(List<StockAdjustment> adjustments) {
+        if (adjustments == null || adjustments.isEmpty()) {
+            throw new BusinessException(400, "库存调整列表不能为空");
+        }
+        if (adjustments.size() > maxBatchSize) {
+            throw new BusinessException(400, "单次最多调整 " + maxBatchSize + " 条库存");
+        }
+        for (StockAdjustment adjustment : adjustments) {
+            if (adjustment == null || adjustment.getProductId() == null || adjustment.getQuantity() == null) {
+                throw new BusinessException(400, "库存调整项的商品 ID 和数量不能为空");
+            }
+        }
+        
+        // 合并同一商品的调整，并按 ID 排序以固定加锁顺序，避免死锁
+        Map<Long, Integer> deltas = new TreeMap<>();
+        Map<Long, Integer> hotDeltas = new TreeMap<>();
+        for (StockAdjustment adjustment : adjustments) {
+            Long productId = adjustment.getProductId();
+            (flashSaleStockEngine.isHot(productId) ? hotDeltas : deltas)
+                    .merge(productId, adjustment.getQuantity(), Integer::sum);
+        }
+        adjustHotStock(hotDeltas);
+        
+        List<Object[]> args = deltas.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey(), entry.getValue()})
+                .toList();
+        int[] counts = jdbcTemplate.batchUpdate(ADJUST_STOCK_SQL, args);
+        
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                Long productId = (Long) args.get(i)[1];
+                if (!productRepository.existsById(productId)) {
+                    throw new BusinessException(404, "商品不存在: " + productId);
+                }
+                throw new BusinessException(400, "库存不足: " + productId);
+            }
+        }
+        
+        deltas.keySet().forEach(productCache::evict);
+        deltas.keySet().forEach(productResponseCache::evictProduct);
+        log.info("批量更新商品库存, 商品数: {}", deltas.size());
+    }
+    
+    /**
+     * 预占热点商品库存，事务回滚时撤销已成功的预占（无条件反向累加，失败时记入补偿日志）
+     */
+    private void adjustHotStock(Map<Long, Integer> hotDeltas) {
+        if (hotDeltas.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Integer>> applied = new ArrayList<>();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        applied.forEach(entry -> flashSaleStockEngine.revert(entry.getKey(), entry.getValue()));
+                    }
+                }
+            });
+        }
+        for (Map.Entry<Long, Integer> entry : hotDeltas.entrySet()) {
+            flashSaleStockEngine.adjust(entry.getKey(), entry.getValue());
+            applied.add(entry);
+        }
+    }
+    
+    /**
+     * 热点商品的库存以引擎中的实时值为准
+     */
+    private ProductDto withLiveStock(ProductDto productDto) {
+        if (!flashSaleStockEngine.isHot(productDto.getId())) {
+            return productDto;
+        }
+        Integer available = flashSaleStockEngine.available(productDto.getId());
+        return available != null ? productDto.toBuilder().stockQuantity(available).build() : productDto;
+    }
+    
+    /**
+     * 校验游标分页的每页条数在 1 到 product.cursor.max-size 之间
+     */
+    private void checkCursorSize(int size) {
+        if (size < 1 || size > maxCursorSize) {
+            throw new BusinessException(400, "每页条数必须在 1 到 " + maxCursorSize + " 之间");
+        }
+    }
+    
+    /**
+     * 将多取一条的查询结果组装为游标分页结果
+     */
+    private CursorPage<ProductSummaryDto> toCursorPage(List<ProductSummaryDto> products, int size) {
+        boolean hasMore = products.size() > size;
+        List<ProductSummaryDto> page = hasMore ? products.subList(0, size) : products;
+        String nextCursor = null;
+        if (hasMore) {
+            ProductSummaryDto last = page.get(page.size() - 1);
+            nextCursor = new ProductCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return CursorPage.<ProductSummaryDto>builder()
+                .content(page)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .size(size)
+                .build();
     }
     
     /**
@@ -0,0 +1,337 @@
+package com.ecommerce.product.stock;
+
+import com.ecommerce.common.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 秒杀热点商品库存引擎
+ * <p>
+ * 热点商品的库存保存在 Redis 计数器中，通过 Lua 脚本原子地预占/释放，
+ * 净变化量同时累加到待刷写日志（pending）。后台任务定期把 pending 转入 inflight 并分配序号，
+ * 在一个数据库事务中批量写回 {@code products.stock_quantity} 并记录到 {@code stock_flush_log}，
+ * 提交后再删除 inflight。进程崩溃后重启时重新执行刷写，已记录的序号会被跳过，保证恰好写回一次。
+ * <p>
+ * 数据库事务回滚时通过 {@link #revert(Long, int)} 撤销已成功的预占；撤销失败的记录写入
+ * {@code stock_compensation_log}，由刷写任务重放。Redis 写入无法随数据库事务回滚，
+ * 重放时以补偿记录 ID 在 Redis 中登记已执行标记，同一条记录最多生效一次。
+ */
+@Slf4j
+@Component
+public class FlashSaleStockEngine {
+    
+    static final DefaultRedisScript<Long> ADJUST_SCRIPT = new DefaultRedisScript<>(
+            "local stock = redis.call('GET', KEYS[1]) " +
+            "if not stock then return -1 end " +
+            "local delta = tonumber(ARGV[1]) " +
+            "if tonumber(stock) + delta < 0 then return -2 end " +
+            "redis.call('INCRBY', KEYS[2], delta) " +
+            "return redis.call('INCRBY', KEYS[1], delta)",
+            Long.class);
+    
+    /**
+     * 无条件反向累加，不检查库存下限；计数器缺失时只累加 pending，重新加载时会计入
+     */
+    static final DefaultRedisScript<Long> REVERT_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCRBY', KEYS[2], ARGV[1]) " +
+            "if redis.call('EXISTS', KEYS[1]) == 1 then redis.call('INCRBY', KEYS[1], ARGV[1]) end " +
+            "return 1",
+            Long.class);
+    
+    /**
+     * 重放一条补偿记录：先以记录 ID 写入执行标记，标记已存在说明此前已生效，直接返回 0
+     */
+    static final DefaultRedisScript<Long> REPLAY_SCRIPT = new DefaultRedisScript<>(
+            "if not redis.call('SET', KEYS[3], '1', 'NX', 'PX', ARGV[2]) then return 0 end " +
+            "redis.call('INCRBY', KEYS[2], ARGV[1]) " +
+            "if redis.call('EXISTS', KEYS[1]) == 1 then redis.call('INCRBY', KEYS[1], ARGV[1]) end " +
+            "return 1",
+            Long.class);
+    
+    @SuppressWarnings("rawtypes")
+    static final DefaultRedisScript<List> TAKE_PENDING_SCRIPT = new DefaultRedisScript<>(
+            "local inflight = redis.call('HMGET', KEYS[2], 'seq', 'delta') " +
+            "if inflight[1] then return {tonumber(inflight[1]), tonumber(inflight[2])} end " +
+            "local pending = tonumber(redis.call('GET', KEYS[1]) or '0') " +
+            "if pending == 0 then return false end " +
+            "local seq = redis.call('INCR', KEYS[3]) " +
+            "redis.call('HSET', KEYS[2], 'seq', seq, 'delta', pending) " +
+            "redis.call('DECRBY', KEYS[1], pending) " +
+            "return {seq, pending}",
+            List.class);
+    
+    static final DefaultRedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], 'seq') == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+            "return 0",
+            Long.class);
+    
+    private static final String INSERT_FLUSH_LOG_SQL =
+            "INSERT INTO stock_flush_log (product_id, seq, delta, flushed_at) " +
+            "VALUES (?, ?, ?, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING";
+    
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity + ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+    
+    private static final String INSERT_COMPENSATION_SQL =
+            "INSERT INTO stock_compensation_log (product_id, delta, created_at) VALUES (?, ?, CURRENT_TIMESTAMP)";
+    
+    /**
+     * 认领一批待重放的补偿记录，SKIP LOCKED 避免多个副本重复重放
+     */
+    private static final String CLAIM_COMPENSATIONS_SQL =
+            "DELETE FROM stock_compensation_log WHERE id IN (" +
+            "SELECT id FROM stock_compensation_log ORDER BY id LIMIT 100 FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, product_id, delta";
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${product.flash-sale.hot-product-ids:}")
+    private Set<Long> hotProductIds = new HashSet<>();
+    
+    /**
+     * 补偿执行标记的保留时间，需远大于重放间隔
+     */
+    @Value("${product.flash-sale.compensation-marker-ttl:1d}")
+    private Duration compensationMarkerTtl = Duration.ofDays(1);
+    
+    private Counter compensationFailedCounter;
+    
+    @PostConstruct
+    public void registerMetrics() {
+        compensationFailedCounter = Counter.builder("flash_sale.compensation.failed")
+                .description("事务回滚后撤销预占失败、写入补偿日志的次数")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 是否为热点商品
+     */
+    public boolean isHot(Long productId) {
+        return hotProductIds.contains(productId);
+    }
+    
+    /**
+     * 启动时恢复未完成的刷写，并为热点商品初始化库存计数器
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        flush();
+        for (Long productId : hotProductIds) {
+            activate(productId);
+        }
+        log.info("秒杀库存引擎已启动, 热点商品: {}", hotProductIds);
+    }
+    
+    /**
+     * 调整热点商品库存，返回调整后的可用库存
+     */
+    public long adjust(Long productId, int delta) {
+        Long result = execute(productId, delta);
+        if (result == -1) {
+            // 计数器缺失（如 Redis 被清空），从数据库重新加载后重试一次
+            activate(productId);
+            result = execute(productId, delta);
+        }
+        if (result == -1) {
+            throw new BusinessException(404, "商品不存在");
+        }
+        if (result == -2) {
+            throw new BusinessException(400, "库存不足");
+        }
+        return result;
+    }
+    
+    /**
+     * 撤销一次已成功的 {@link #adjust(Long, int)}，用于事务回滚后的补偿
+     * <p>
+     * 不抛出异常：Redis 执行失败时写入补偿日志表，由刷写任务重放。
+     */
+    public void revert(Long productId, int delta) {
+        try {
+            executeRevert(productId, -delta);
+        } catch (Exception e) {
+            compensationFailedCounter.increment();
+            log.error("秒杀库存补偿失败, 写入补偿日志待重放: 商品 {}, 变化量 {}, {}", productId, -delta, e.getMessage());
+            try {
+                jdbcTemplate.update(INSERT_COMPENSATION_SQL, productId, -delta);
+            } catch (Exception journalError) {
+                log.error("写入秒杀库存补偿日志失败, 需人工修正: 商品 {}, 变化量 {}, {}",
+                        productId, -delta, journalError.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * 查询热点商品的实时可用库存，计数器不存在时返回 null
+     */
+    public Integer available(Long productId) {
+        String stock = redisTemplate.opsForValue().get(stockKey(productId));
+        return stock != null ? Integer.valueOf(stock) : null;
+    }
+    
+    /**
+     * 把累积的库存净变化批量写回数据库
+     */
+    @Scheduled(fixedDelayString = "${product.flash-sale.flush-interval:500}")
+    public void flush() {
+        replayCompensations();
+        
+        List<long[]> batches = new ArrayList<>();
+        for (Long productId : hotProductIds) {
+            long[] taken = takePending(productId);
+            if (taken != null) {
+                batches.add(new long[]{productId, taken[0], taken[1]});
+            }
+        }
+        if (batches.isEmpty()) {
+            return;
+        }
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Object[]> logArgs = batches.stream()
+                    .map(b -> new Object[]{b[0], b[1], b[2]})
+                    .toList();
+            int[] inserted = jdbcTemplate.batchUpdate(INSERT_FLUSH_LOG_SQL, logArgs);
+            
+            // 只对首次记录的序号写回库存，重放的序号直接跳过
+            List<Object[]> deltaArgs = new ArrayList<>();
+            for (int i = 0; i < inserted.length; i++) {
+                if (inserted[i] > 0) {
+                    long[] b = batches.get(i);
+                    deltaArgs.add(new Object[]{b[2], b[0]});
+                }
+            }
+            if (!deltaArgs.isEmpty()) {
+                jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, deltaArgs);
+            }
+        });
+        
+        // 只删除本次刷写的序号，避免误删其他副本随后取出的新批次
+        for (long[] b : batches) {
+            redisTemplate.execute(COMPLETE_SCRIPT, List.of(inflightKey(b[0])), String.valueOf(b[1]));
+        }
+        log.debug("秒杀库存刷写完成, 商品数: {}", batches.size());
+    }
+    
+    /**
+     * 重放补偿日志；认领与执行在同一事务中，执行或提交失败时回滚，记录留待下次重放。
+     * 回滚前已生效的记录在 Redis 中留有执行标记，下次重放时跳过。
+     */
+    private void replayCompensations() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(CLAIM_COMPENSATIONS_SQL);
+                for (Map<String, Object> row : rows) {
+                    replay(((Number) row.get("id")).longValue(),
+                            ((Number) row.get("product_id")).longValue(),
+                            ((Number) row.get("delta")).intValue());
+                }
+                if (!rows.isEmpty()) {
+                    log.info("秒杀库存补偿日志重放完成, 条数: {}", rows.size());
+                }
+            });
+        } catch (Exception e) {
+            log.warn("重放秒杀库存补偿日志失败: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 从数据库加载库存初始化计数器（已存在时保留现有值）
+     */
+    private void activate(Long productId) {
+        List<Integer> stock = jdbcTemplate.queryForList(
+                "SELECT stock_quantity FROM products WHERE id = ?", Integer.class, productId);
+        if (stock.isEmpty()) {
+            return;
+        }
+        // 仍在 pending / inflight 中的变化量尚未写回数据库，需要计入初始值
+        long unflushed = parseLong(redisTemplate.opsForValue().get(pendingKey(productId)));
+        Object inflightDelta = redisTemplate.opsForHash().get(inflightKey(productId), "delta");
+        if (inflightDelta != null) {
+            unflushed += parseLong(inflightDelta.toString());
+        }
+        redisTemplate.opsForValue().setIfAbsent(stockKey(productId), String.valueOf(stock.get(0) + unflushed));
+    }
+    
+    private Long execute(Long productId, int delta) {
+        return redisTemplate.execute(ADJUST_SCRIPT,
+                List.of(stockKey(productId), pendingKey(productId)), String.valueOf(delta));
+    }
+    
+    private void executeRevert(Long productId, int delta) {
+        redisTemplate.execute(REVERT_SCRIPT,
+                List.of(stockKey(productId), pendingKey(productId)), String.valueOf(delta));
+    }
+    
+    private void replay(long compensationId, Long productId, int delta) {
+        Long applied = redisTemplate.execute(REPLAY_SCRIPT,
+                List.of(stockKey(productId), pendingKey(productId), compensationKey(productId, compensationId)),
+                String.valueOf(delta), String.valueOf(compensationMarkerTtl.toMillis()));
+        if (applied != null && applied == 0) {
+            log.info("秒杀库存补偿记录已生效过, 跳过: {}", compensationId);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private long[] takePending(Long productId) {
+        List<Object> result = redisTemplate.execute(TAKE_PENDING_SCRIPT,
+                List.of(pendingKey(productId), inflightKey(productId), seqKey(productId)));
+        if (result == null || result.size() < 2) {
+            return null;
+        }
+        return new long[]{parseLong(result.get(0).toString()), parseLong(result.get(1).toString())};
+    }
+    
+    private static long parseLong(String value) {
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+    
+    private static String stockKey(Long productId) {
+        return "product:flash:{" + productId + "}:stock";
+    }
+    
+    private static String pendingKey(Long productId) {
+        return "product:flash:{" + productId + "}:pending";
+    }
+    
+    private static String inflightKey(Long productId) {
+        return "product:flash:{" + productId + "}:inflight";
+    }
+    
+    private static String seqKey(Long productId) {
+        return "product:flash:{" + productId + "}:seq";
+    }
+    
+    private static String compensationKey(Long productId, long compensationId) {
+        return "product:flash:{" + productId + "}:compensation:" + compensationId;
+    }
+}
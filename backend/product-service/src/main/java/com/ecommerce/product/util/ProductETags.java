@@ -0,0 +1,67 @@
+package com.ecommerce.product.util;
+
+import com.ecommerce.product.dto.ProductDto;
+import com.ecommerce.product.dto.ProductSummaryDto;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+
+/**
+ * 商品响应的 ETag / Last-Modified 计算工具
+ * <p>
+ * 所有写路径（包括库存原子更新）都会刷新 updatedAt；秒杀商品的库存不落库时 updatedAt 不变，
+ * 因此库存值也参与计算。表示版本号在响应结构变化时递增，使旧 ETag 全部失效。
+ */
+public final class ProductETags {
+    
+    /**
+     * 响应表示版本
+     */
+    private static final String REPRESENTATION_VERSION = "1";
+    
+    private ProductETags() {
+    }
+    
+    /**
+     * 商品详情的强 ETag
+     */
+    public static String strong(ProductDto product) {
+        return "\"" + REPRESENTATION_VERSION + "-" + product.getId()
+                + "-" + Long.toHexString(toEpochMilli(product.getUpdatedAt()))
+                + "-" + product.getStockQuantity() + "\"";
+    }
+    
+    /**
+     * 列表页的弱 ETag，由每条记录的 (id, updatedAt, 库存) 与总数计算摘要
+     */
+    public static String weak(Collection<ProductSummaryDto> products, long total) {
+        StringBuilder source = new StringBuilder(REPRESENTATION_VERSION).append('|').append(total);
+        for (ProductSummaryDto product : products) {
+            source.append('|').append(product.getId())
+                    .append(':').append(toEpochMilli(product.getUpdatedAt()))
+                    .append(':').append(product.getStockQuantity());
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+    
+    /**
+     * 列表页的最后修改时间，列表为空时返回 0
+     */
+    public static long lastModified(Collection<ProductSummaryDto> products) {
+        long latest = 0L;
+        for (ProductSummaryDto product : products) {
+            latest = Math.max(latest, toEpochMilli(product.getUpdatedAt()));
+        }
+        return latest;
+    }
+    
+    /**
+     * 转换为毫秒时间戳
+     */
+    public static long toEpochMilli(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+}
@@ -0,0 +1,67 @@
+package com.ecommerce.product.dto;
+
+import com.ecommerce.common.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 商品列表游标编解码
+ */
+class ProductCursorTest {
+
+    @Test
+    void roundTripsCreatedAtAndId() {
+        ProductCursor cursor = new ProductCursor(LocalDateTime.of(2024, 3, 1, 12, 30, 45, 123_456_000), 42L);
+
+        String token = cursor.encode();
+
+        assertThat(token).doesNotContain("=", "+", "/");
+        assertThat(ProductCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsWholeSecondTimestamp() {
+        ProductCursor cursor = new ProductCursor(LocalDateTime.of(2024, 3, 1, 0, 0), Long.MAX_VALUE);
+
+        assertThat(ProductCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "not base64!", "@@@@", "MjAyNC0wMy0wMVQxMjozMA"})
+    void rejectsMalformedTokens(String token) {
+        assertRejected(token);
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        assertRejected(encode("2024-03-01T12:30:45|abc"));
+        assertRejected(encode("yesterday|42"));
+        assertRejected(encode("2024-03-01T12:30:45"));
+    }
+
+    @Test
+    void rejectsTruncatedToken() {
+        String token = new ProductCursor(LocalDateTime.of(2024, 3, 1, 12, 30, 45), 42L).encode();
+
+        assertRejected(token.substring(0, token.length() / 2));
+    }
+
+    private static void assertRejected(String token) {
+        assertThatThrownBy(() -> ProductCursor.decode(token))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getCode())
+                .isEqualTo(400);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,178 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 商品倒排索引：BM25 排序、名称加权、前缀匹配与重建期间的增量更新
+ */
+class ProductSearchIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(index, "productRepository", productRepository);
+        ReflectionTestUtils.setField(index, "redisTemplate", mock(StringRedisTemplate.class));
+        ReflectionTestUtils.setField(index, "rebuildBatchSize", 1000);
+        ReflectionTestUtils.setField(index, "retryInitialBackoff", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(index, "retryMaxBackoff", Duration.ofMillis(10));
+    }
+
+    @Test
+    void allQueryTermsMustMatch() {
+        index.index(product(1L, "Apple iPhone 15", "smartphone"));
+        index.index(product(2L, "Apple Watch", "smartwatch"));
+
+        assertThat(search("apple watch")).containsExactly(2L);
+        assertThat(search("watch iphone")).isEmpty();
+        assertThat(index.search("apple", 0, 10).getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    void higherTermFrequencyAndShorterDocumentsRankFirst() {
+        index.index(product(1L, "Case", "leather leather leather"));
+        index.index(product(2L, "Case", "leather"));
+        index.index(product(3L, "Case", "leather and a long description with many other words in it"));
+
+        assertThat(search("leather")).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void rarerTermsWeighMore() {
+        index.index(product(1L, "Cable", "usb lightning lightning"));
+        index.index(product(2L, "Cable", "usb usb lightning"));
+        index.index(product(3L, "Hub", "usb"));
+        index.index(product(4L, "Charger", "usb"));
+
+        // 长度相同，稀有词 lightning 词频更高的文档得分更高
+        assertThat(search("usb lightning")).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void nameMatchesOutrankDescriptionMatches() {
+        index.index(product(1L, "Phone holder", "fits any keyboard"));
+        index.index(product(2L, "Keyboard", "mechanical"));
+
+        assertThat(search("keyboard")).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void lastAlphanumericTermMatchesAsPrefix() {
+        index.index(product(1L, "Apple iPhone 15", null));
+        index.index(product(2L, "iPad Air", null));
+        index.index(product(3L, "Samsung Galaxy", null));
+
+        assertThat(search("iph")).containsExactly(1L);
+        assertThat(search("ip")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(search("apple ip")).containsExactly(1L);
+        // 只有最后一个词按前缀匹配
+        assertThat(search("app iphone")).isEmpty();
+        assertThat(search("xyz")).isEmpty();
+    }
+
+    @Test
+    void prefixAlsoMatchesTheExactTerm() {
+        index.index(product(1L, "Pro", null));
+        index.index(product(2L, "Projector", null));
+
+        assertThat(search("pro")).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void cjkQueryTermsAreNotPrefixExpanded() {
+        index.index(product(1L, "手机壳", null));
+        index.index(product(2L, "手机支架", null));
+
+        assertThat(search("手机")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(search("手机壳")).containsExactly(1L);
+    }
+
+    @Test
+    void prefixDictionaryForgetsRemovedTerms() {
+        index.index(product(1L, "iPhone", null));
+        index.index(product(1L, "Galaxy", null));
+
+        assertThat(search("iph")).isEmpty();
+        assertThat(search("gal")).containsExactly(1L);
+
+        index.remove(1L);
+        assertThat(search("gal")).isEmpty();
+    }
+
+    @Test
+    void updatesDuringRebuildAreReappliedAfterSwap() throws Exception {
+        CountDownLatch scanStarted = new CountDownLatch(1);
+        CountDownLatch releaseScan = new CountDownLatch(1);
+        // 扫描返回的是更新前的快照
+        when(productRepository.findFirstPage(any())).thenAnswer(i -> {
+            scanStarted.countDown();
+            releaseScan.await(5, TimeUnit.SECONDS);
+            return List.of(product(1L, "iPhone", null), product(2L, "Old charger", null));
+        });
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L, "Galaxy", null)));
+        when(productRepository.findById(2L)).thenReturn(Optional.empty());
+
+        index.rebuildOnStartup();
+        assertThat(scanStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        index.index(product(1L, "Galaxy", null));
+        index.remove(2L);
+        releaseScan.countDown();
+
+        await(() -> index.isReady() && search("galaxy").equals(List.of(1L)));
+        await(() -> search("charger").isEmpty());
+        assertThat(search("iphone")).isEmpty();
+    }
+
+    @Test
+    void failedRebuildIsRetried() throws Exception {
+        when(productRepository.findFirstPage(any()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(List.of(product(1L, "iPhone", null)));
+
+        index.rebuildOnStartup();
+
+        await(index::isReady);
+        assertThat(search("iphone")).containsExactly(1L);
+    }
+
+    private List<Long> search(String keyword) {
+        return index.search(keyword, 0, 10).getProductIds();
+    }
+
+    private static Product product(Long id, String name, String description) {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id))
+                .build();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("等待条件超时").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.product.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 搜索分词：中英文混排、二元组与单字
+ */
+class TokenizerTest {
+
+    @Test
+    void documentEmitsUnigramsAndBigramsForCjkRuns() {
+        assertThat(Tokenizer.tokenizeDocument("iPhone15手机壳"))
+                .containsExactly("iphone15", "手", "手机", "机", "机壳", "壳");
+    }
+
+    @Test
+    void queryEmitsOnlyBigramsForCjkRuns() {
+        assertThat(Tokenizer.tokenizeQuery("iPhone15手机壳"))
+                .containsExactly("iphone15", "手机", "机壳");
+    }
+
+    @Test
+    void splitsOnPunctuationAndWhitespace() {
+        assertThat(Tokenizer.tokenizeQuery("USB-C 数据线，2米"))
+                .containsExactly("usb", "c", "数据", "据线", "2", "米");
+    }
+
+    @Test
+    void singleCjkCharacterIsKeptAsUnigram() {
+        assertThat(Tokenizer.tokenizeQuery("书")).containsExactly("书");
+        assertThat(Tokenizer.tokenizeDocument("书")).containsExactly("书");
+    }
+
+    @Test
+    void cjkBetweenAsciiRunsSplitsTokens() {
+        assertThat(Tokenizer.tokenizeDocument("A4纸500张"))
+                .containsExactly("a4", "纸", "500", "张");
+    }
+
+    @Test
+    void kanaAndHangulAreTreatedAsCjk() {
+        assertThat(Tokenizer.tokenizeQuery("カメラ")).containsExactly("カメ", "メラ");
+        assertThat(Tokenizer.tokenizeQuery("한국어")).containsExactly("한국", "국어");
+    }
+
+    @Test
+    void emptyInputYieldsNoTokens() {
+        assertThat(Tokenizer.tokenizeQuery(null)).isEmpty();
+        assertThat(Tokenizer.tokenizeDocument("")).isEmpty();
+        assertThat(Tokenizer.tokenizeDocument(" ,.!")).isEmpty();
+    }
+}
@@ -0,0 +1,232 @@
+package com.ecommerce.product.service.impl;
+
+import com.ecommerce.product.cache.ProductResponseCache;
+import com.ecommerce.product.dto.ExportFormat;
+import com.ecommerce.product.dto.ImportResult;
+import com.ecommerce.product.dto.ImportRowError;
+import com.ecommerce.product.search.ProductSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 批量导入：CSV 解析、物理行号、逐行错误与按段预留商品 ID
+ */
+class ProductImportServiceImplTest {
+
+    private static final String HEADER = "name,description,categoryId,price,stockQuantity,status,imageUrl\n";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final CopyManager copyManager = mock(CopyManager.class);
+
+    private final ProductSearchIndex productSearchIndex = mock(ProductSearchIndex.class);
+
+    private final ProductImportServiceImpl service = new ProductImportServiceImpl();
+
+    /**
+     * COPY 收到的 CSV 内容
+     */
+    private final List<String> copied = new ArrayList<>();
+
+    /**
+     * products_id_seq 下一次 nextval 的返回值（步长 50）
+     */
+    private long nextSequenceValue = 101;
+
+    private int nextvalCalls;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PGConnection pgConnection = mock(PGConnection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        doAnswer(i -> {
+            StringWriter csv = new StringWriter();
+            i.<Reader>getArgument(1).transferTo(csv);
+            copied.add(csv.toString());
+            return 0L;
+        }).when(copyManager).copyIn(anyString(), any(Reader.class));
+
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenAnswer(i -> {
+            int blocks = i.getArgument(2);
+            List<Long> values = new ArrayList<>();
+            for (int b = 0; b < blocks; b++) {
+                values.add(nextSequenceValue);
+                nextSequenceValue += 50;
+                nextvalCalls++;
+            }
+            return values;
+        });
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(i -> {
+            i.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any(Consumer.class));
+
+        ReflectionTestUtils.setField(service, "dataSource", dataSource);
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(service, "productSearchIndex", productSearchIndex);
+        ReflectionTestUtils.setField(service, "productResponseCache", mock(ProductResponseCache.class));
+        ReflectionTestUtils.setField(service, "chunkSize", 5000);
+        ReflectionTestUtils.setField(service, "parallelism", 2);
+        ReflectionTestUtils.setField(service, "maxReportedErrors", 1000);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void csvQuotedFieldsKeepCommasQuotesAndNewlines() {
+        ImportResult result = importCsv(HEADER
+                + "\"Case, leather\",\"He said \"\"hi\"\"\",3,19.99,5,,\n"
+                + "Plain,\"line one\nline two\",4,1.50,,inactive,http://img/1.png\n");
+
+        assertThat(result.getImportedRows()).isEqualTo(2);
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(copied).hasSize(1);
+        assertThat(copied.get(0))
+                .contains("52,\"Case, leather\",\"He said \"\"hi\"\"\",3,19.99,5,\"active\",,")
+                .contains("53,\"Plain\",\"line one\nline two\",4,1.50,0,\"inactive\",\"http://img/1.png\",");
+        verify(productSearchIndex).requestRebuild();
+    }
+
+    @Test
+    void csvErrorsReportPhysicalLines() {
+        ImportResult result = importCsv("\uFEFF" + HEADER
+                + "A,\"multi\r\nline\",1,1.00\r\n"
+                + ",missing name,1,1.00\n"
+                + "\n"
+                + "C,bad price,1,abc\n"
+                + "D,no category,,1.00\n"
+                + "E,too precise,1,1.001\n");
+
+        assertThat(result.getTotalRows()).isEqualTo(5);
+        assertThat(result.getImportedRows()).isEqualTo(1);
+        assertThat(result.getFailedRows()).isEqualTo(4);
+        assertThat(result.getErrors()).extracting(ImportRowError::getLine).containsExactly(4L, 6L, 7L, 8L);
+        assertThat(result.getErrors()).extracting(ImportRowError::getMessage)
+                .satisfiesExactly(
+                        message -> assertThat(message).isEqualTo("商品名称不能为空"),
+                        message -> assertThat(message).startsWith("格式错误"),
+                        message -> assertThat(message).isEqualTo("分类 ID 不能为空"),
+                        message -> assertThat(message).isEqualTo("价格不合法"));
+    }
+
+    @Test
+    void ndjsonSkipsBlankLinesAndKeepsLineNumbers() {
+        ImportResult result = importNdjson("{\"name\":\"A\",\"categoryId\":1,\"price\":1.00}\n"
+                + "\n"
+                + "{not json\n"
+                + "{\"name\":\"B\",\"categoryId\":1,\"price\":-1}\n");
+
+        assertThat(result.getTotalRows()).isEqualTo(3);
+        assertThat(result.getImportedRows()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(ImportRowError::getLine).containsExactly(3L, 4L);
+        assertThat(result.getErrors().get(0).getMessage()).startsWith("格式错误");
+    }
+
+    @Test
+    void copyFailureFallsBackToRowInsertsAndReportsFailingLine() throws Exception {
+        doAnswer(i -> {
+            throw new SQLException("duplicate key");
+        }).when(copyManager).copyIn(anyString(), any(Reader.class));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(i -> {
+            if ("Bad".equals(i.getArgument(2))) {
+                throw new DataIntegrityViolationException("x", new SQLException("violates check constraint"));
+            }
+            return 1;
+        });
+
+        ImportResult result = importCsv(HEADER + "Good,,1,1.00\nBad,,1,1.00\nAlso good,,1,1.00\n");
+
+        assertThat(result.getImportedRows()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ImportRowError::getLine).containsExactly(3L);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("violates check constraint");
+        // 逐行插入沿用 COPY 前预留的 ID
+        verify(jdbcTemplate).update(anyString(), eq(52L), eq("Good"), any(), any(), any(), any(), any(), any(), any(), any());
+        verify(jdbcTemplate).update(anyString(), eq(54L), eq("Also good"), any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void idsAreReservedInBlocksOfFifty() {
+        nextSequenceValue = 1;
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 120; i++) {
+            csv.append("P").append(i).append(",,1,1.00\n");
+        }
+
+        ImportResult result = importCsv(csv.toString());
+
+        assertThat(result.getImportedRows()).isEqualTo(120);
+        // 新序列的首个值 1 不足一段被跳过，51、101、151 各提供一段
+        assertThat(nextvalCalls).isEqualTo(4);
+        assertThat(copiedIds()).containsExactlyElementsOf(LongStream.rangeClosed(2, 121).boxed().toList());
+    }
+
+    @Test
+    void chunksWithoutValidRowsReserveNoIds() {
+        ImportResult result = importCsv(HEADER + ",,1,1.00\n");
+
+        assertThat(result.getFailedRows()).isEqualTo(1);
+        assertThat(nextvalCalls).isZero();
+        verify(productSearchIndex, never()).requestRebuild();
+    }
+
+    private ImportResult importCsv(String content) {
+        return service.importProducts(ExportFormat.CSV, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private ImportResult importNdjson(String content) {
+        return service.importProducts(ExportFormat.NDJSON, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private List<Long> copiedIds() {
+        List<Long> ids = new ArrayList<>();
+        for (String csv : copied) {
+            for (String line : csv.split("\n")) {
+                ids.add(Long.valueOf(line.substring(0, line.indexOf(','))));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,414 @@
+package com.ecommerce.product.stock;
+
+import com.ecommerce.common.exception.BusinessException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 秒杀库存引擎：预占/撤销、刷写序号重放与补偿日志重放
+ * <p>
+ * Lua 脚本在 Redis 中执行，这里用内存中的 Redis 与数据库替身按脚本语义模拟，
+ * 校验引擎在失败、重试与事务回滚下的协议是否保证每次变化恰好生效一次。
+ */
+class FlashSaleStockEngineTest {
+
+    private static final long PRODUCT_ID = 1L;
+
+    private final FakeRedis redis = new FakeRedis();
+
+    private final FakeDatabase db = new FakeDatabase();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private FlashSaleStockEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        db.stock.put(PRODUCT_ID, 10);
+
+        engine = new FlashSaleStockEngine();
+        ReflectionTestUtils.setField(engine, "redisTemplate", redis.template());
+        ReflectionTestUtils.setField(engine, "jdbcTemplate", db.jdbcTemplate());
+        ReflectionTestUtils.setField(engine, "transactionTemplate", db.transactionTemplate());
+        ReflectionTestUtils.setField(engine, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(engine, "hotProductIds", Set.of(PRODUCT_ID));
+        engine.registerMetrics();
+        engine.init();
+    }
+
+    @Test
+    void adjustReservesStockAndFlushWritesNetChange() {
+        assertThat(engine.adjust(PRODUCT_ID, -3)).isEqualTo(7);
+        assertThat(engine.adjust(PRODUCT_ID, -2)).isEqualTo(5);
+        assertThat(engine.available(PRODUCT_ID)).isEqualTo(5);
+        assertThat(db.stock.get(PRODUCT_ID)).isEqualTo(10);
+
+        engine.flush();
+
+        assertThat(db.stock.get(PRODUCT_ID)).isEqualTo(5);
+        assertThat(db.flushLog).hasSize(1);
+    }
+
+    @Test
+    void adjustRejectsOversellWithoutTouchingCounters() {
+        engine.adjust(PRODUCT_ID, -8);
+
+        assertThatThrownBy(() -> engine.adjust(PRODUCT_ID, -3))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getCode())
+                .isEqualTo(400);
+        assertThat(engine.available(PRODUCT_ID)).isEqualTo(2);
+
+        engine.flush();
+        assertThat(db.stock.get(PRODUCT_ID)).isEqualTo(2);
+    }
+
+    @Test
+    void adjustReloadsMissingCounterIncludingUnflushedChanges() {
+        engine.adjust(PRODUCT_ID, -2);
+        redis.strings.remove("product:flash:{1}:stock");
+
+        assertThat(engine.adjust(PRODUCT_ID, -1)).isEqualTo(7);
+    }
+
+    @Test
+    void adjustUnknownProductIs404() {
+        assertThatThrownBy(() -> engine.adjust(99L, -1))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getCode())
+                .isEqualTo(404);
+    }
+
+    @Test
+    void revertRestoresReservation() {
+        engine.adjust(PRODUCT_ID, -3);
+
+        engine.revert(PRODUCT_ID, -3);
+
+        assertThat(engine.available(PRODUCT_ID)).isEqualTo(10);
+        engine.flush();
+        assertThat(db.stock.get(PRODUCT_ID)).isEqualTo(10);
+        assertThat(db.flushLog).isEmpty();
+    }
+
+    @Test
+    void flushReplaysUncompletedSeqWithoutApplyingItTwice() {
+        engine.adjust(PRODUCT_ID, -3);
+        // 数据库已提交，删除 inflight 前进程崩溃
+        redis.failNext(FlashSaleStockEngine.COMPLETE_SCRIPT);
+        assertThatThrownBy(() -> engine.flush()).isInstanceOf(RedisConnectionFailureException.class);
+        assertThat(db.stock.get(PRODUCT_ID)).isEqualTo(7);
+
+        engine.adjust(PRODUCT_ID, -1);
+        engine.flush();
+
+        assertThat(db.stock.get(PRODUCT_ID)).isEqualTo(7);
+        assertThat(redis.hashes).doesNotContainKey("product:flash:{1}:inflight");
+
+        engine.flush();
+        assertThat(db.stock.get(PRODUCT_ID)).isEqualTo(6);
+        assertThat(engine.available(PRODUCT_ID)).isEqualTo(6);
+    }
+
+    @Test
+    void failedRevertIsJournaledAndReplayedByFlush() {
+        engine.adjust(PRODUCT_ID, -3);
+        redis.failNext(FlashSaleStockEngine.REVERT_SCRIPT);
+
+        engine.revert(PRODUCT_ID, -3);
+
+        assertThat(engine.available(PRODUCT_ID)).isEqualTo(7);
+        assertThat(db.compensations).hasSize(1);
+        assertThat(meterRegistry.counter("flash_sale.compensation.failed").count()).isEqualTo(1);
+
+        engine.flush();
+
+        assertThat(engine.available(PRODUCT_ID)).isEqualTo(10);
+        assertThat(db.compensations).isEmpty();
+        assertThat(db.stock.get(PRODUCT_ID)).isEqualTo(10);
+    }
+
+    @Test
+    void partialReplayFailureDoesNotApplyEarlierRowsTwice() {
+        engine.adjust(PRODUCT_ID, -2);
+        engine.adjust(PRODUCT_ID, -3);
+        redis.failNext(FlashSaleStockEngine.REVERT_SCRIPT);
+        engine.revert(PRODUCT_ID, -2);
+        redis.failNext(FlashSaleStockEngine.REVERT_SCRIPT);
+        engine.revert(PRODUCT_ID, -3);
+        assertThat(engine.available(PRODUCT_ID)).isEqualTo(5);
+
+        // 第一条已在 Redis 生效，第二条失败，认领事务回滚，两条记录都回到日志中
+        redis.failAfter(FlashSaleStockEngine.REPLAY_SCRIPT, 1);
+        engine.flush();
+        assertThat(db.compensations).hasSize(2);
+        assertThat(engine.available(PRODUCT_ID)).isEqualTo(7);
+
+        engine.flush();
+
+        assertThat(db.compensations).isEmpty();
+        assertThat(engine.available(PRODUCT_ID)).isEqualTo(10);
+        engine.flush();
+        assertThat(db.stock.get(PRODUCT_ID)).isEqualTo(10);
+    }
+
+    @Test
+    void commitFailureAfterReplayDoesNotApplyTwice() {
+        engine.adjust(PRODUCT_ID, -4);
+        redis.failNext(FlashSaleStockEngine.REVERT_SCRIPT);
+        engine.revert(PRODUCT_ID, -4);
+
+        db.failNextCommit = true;
+        engine.flush();
+        assertThat(db.compensations).hasSize(1);
+        assertThat(engine.available(PRODUCT_ID)).isEqualTo(10);
+
+        engine.flush();
+
+        assertThat(db.compensations).isEmpty();
+        assertThat(engine.available(PRODUCT_ID)).isEqualTo(10);
+    }
+
+    /**
+     * 按 {@link FlashSaleStockEngine} 中各 Lua 脚本的语义实现的内存 Redis
+     */
+    private static class FakeRedis {
+
+        final Map<String, String> strings = new HashMap<>();
+
+        final Map<String, Map<Object, Object>> hashes = new HashMap<>();
+
+        private final Map<RedisScript<?>, Integer> failures = new HashMap<>();
+
+        void failNext(RedisScript<?> script) {
+            failAfter(script, 0);
+        }
+
+        /**
+         * 脚本再成功执行 successes 次后失败一次
+         */
+        void failAfter(RedisScript<?> script, int successes) {
+            failures.put(script, successes);
+        }
+
+        @SuppressWarnings("unchecked")
+        StringRedisTemplate template() {
+            StringRedisTemplate template = mock(StringRedisTemplate.class);
+            doAnswer(this::execute).when(template).execute(any(RedisScript.class), anyList(), any(Object[].class));
+
+            ValueOperations<String, String> values = mock(ValueOperations.class);
+            when(values.get(anyString())).thenAnswer(i -> strings.get(i.<String>getArgument(0)));
+            when(values.setIfAbsent(anyString(), anyString()))
+                    .thenAnswer(i -> strings.putIfAbsent(i.getArgument(0), i.getArgument(1)) == null);
+            when(template.opsForValue()).thenReturn(values);
+
+            HashOperations<String, Object, Object> hashOps = mock(HashOperations.class);
+            when(hashOps.get(anyString(), any()))
+                    .thenAnswer(i -> hashes.getOrDefault(i.<String>getArgument(0), Map.of()).get(i.getArgument(1)));
+            when(template.<Object, Object>opsForHash()).thenReturn(hashOps);
+            return template;
+        }
+
+        private Object execute(InvocationOnMock invocation) {
+            RedisScript<?> script = invocation.getArgument(0);
+            List<String> keys = invocation.getArgument(1);
+            Object[] args = invocation.getRawArguments()[2] instanceof Object[] raw ? raw : new Object[0];
+
+            Integer remaining = failures.get(script);
+            if (remaining != null) {
+                if (remaining == 0) {
+                    failures.remove(script);
+                    throw new RedisConnectionFailureException("injected");
+                }
+                failures.put(script, remaining - 1);
+            }
+
+            if (script == FlashSaleStockEngine.ADJUST_SCRIPT) {
+                return adjust(keys, Long.parseLong((String) args[0]));
+            }
+            if (script == FlashSaleStockEngine.REVERT_SCRIPT) {
+                revert(keys, Long.parseLong((String) args[0]));
+                return 1L;
+            }
+            if (script == FlashSaleStockEngine.REPLAY_SCRIPT) {
+                if (strings.putIfAbsent(keys.get(2), "1") != null) {
+                    return 0L;
+                }
+                revert(keys, Long.parseLong((String) args[0]));
+                return 1L;
+            }
+            if (script == FlashSaleStockEngine.TAKE_PENDING_SCRIPT) {
+                return takePending(keys);
+            }
+            if (script == FlashSaleStockEngine.COMPLETE_SCRIPT) {
+                Map<Object, Object> inflight = hashes.get(keys.get(0));
+                if (inflight != null && inflight.get("seq").equals(args[0])) {
+                    hashes.remove(keys.get(0));
+                    return 1L;
+                }
+                return 0L;
+            }
+            throw new IllegalArgumentException("未知脚本");
+        }
+
+        private long adjust(List<String> keys, long delta) {
+            String stock = strings.get(keys.get(0));
+            if (stock == null) {
+                return -1;
+            }
+            if (Long.parseLong(stock) + delta < 0) {
+                return -2;
+            }
+            incrBy(keys.get(1), delta);
+            return incrBy(keys.get(0), delta);
+        }
+
+        private void revert(List<String> keys, long delta) {
+            incrBy(keys.get(1), delta);
+            if (strings.containsKey(keys.get(0))) {
+                incrBy(keys.get(0), delta);
+            }
+        }
+
+        private List<Object> takePending(List<String> keys) {
+            Map<Object, Object> inflight = hashes.get(keys.get(1));
+            if (inflight != null) {
+                return List.of(Long.valueOf((String) inflight.get("seq")), Long.valueOf((String) inflight.get("delta")));
+            }
+            long pending = Long.parseLong(strings.getOrDefault(keys.get(0), "0"));
+            if (pending == 0) {
+                return null;
+            }
+            long seq = incrBy(keys.get(2), 1);
+            Map<Object, Object> batch = new HashMap<>();
+            batch.put("seq", String.valueOf(seq));
+            batch.put("delta", String.valueOf(pending));
+            hashes.put(keys.get(1), batch);
+            incrBy(keys.get(0), -pending);
+            return List.of(seq, pending);
+        }
+
+        private long incrBy(String key, long delta) {
+            long value = Long.parseLong(strings.getOrDefault(key, "0")) + delta;
+            strings.put(key, String.valueOf(value));
+            return value;
+        }
+    }
+
+    /**
+     * 内存数据库，事务失败时恢复到事务开始前的快照
+     */
+    private static class FakeDatabase {
+
+        final Map<Long, Integer> stock = new HashMap<>();
+
+        final Set<String> flushLog = new HashSet<>();
+
+        final TreeMap<Long, long[]> compensations = new TreeMap<>();
+
+        boolean failNextCommit;
+
+        private long nextCompensationId = 1;
+
+        JdbcTemplate jdbcTemplate() {
+            JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+            when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), any(Object[].class)))
+                    .thenAnswer(i -> {
+                        Integer quantity = stock.get(i.<Long>getArgument(2));
+                        return quantity != null ? List.of(quantity) : List.of();
+                    });
+            when(jdbcTemplate.queryForList(anyString())).thenAnswer(i -> claimCompensations());
+            when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(i -> {
+                compensations.put(nextCompensationId++,
+                        new long[]{i.<Long>getArgument(1), i.<Integer>getArgument(2)});
+                return 1;
+            });
+            when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(i -> {
+                String sql = i.getArgument(0);
+                List<Object[]> rows = i.getArgument(1);
+                int[] counts = new int[rows.size()];
+                for (int r = 0; r < rows.size(); r++) {
+                    Object[] row = rows.get(r);
+                    if (sql.startsWith("INSERT INTO stock_flush_log")) {
+                        counts[r] = flushLog.add(row[0] + ":" + row[1]) ? 1 : 0;
+                    } else {
+                        stock.merge((Long) row[1], (int) (long) (Long) row[0], Integer::sum);
+                        counts[r] = 1;
+                    }
+                }
+                return counts;
+            });
+            return jdbcTemplate;
+        }
+
+        @SuppressWarnings("unchecked")
+        TransactionTemplate transactionTemplate() {
+            TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+            doAnswer(i -> {
+                Map<Long, Integer> stockSnapshot = new HashMap<>(stock);
+                Set<String> flushLogSnapshot = new HashSet<>(flushLog);
+                TreeMap<Long, long[]> compensationSnapshot = new TreeMap<>(compensations);
+                try {
+                    i.<Consumer<Object>>getArgument(0).accept(null);
+                    if (failNextCommit) {
+                        failNextCommit = false;
+                        throw new TransactionSystemException("injected commit failure");
+                    }
+                } catch (RuntimeException e) {
+                    stock.clear();
+                    stock.putAll(stockSnapshot);
+                    flushLog.clear();
+                    flushLog.addAll(flushLogSnapshot);
+                    compensations.clear();
+                    compensations.putAll(compensationSnapshot);
+                    throw e;
+                }
+                return null;
+            }).when(transactionTemplate).executeWithoutResult(any(Consumer.class));
+            return transactionTemplate;
+        }
+
+        private List<Map<String, Object>> claimCompensations() {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            Iterator<Map.Entry<Long, long[]>> it = compensations.entrySet().iterator();
+            while (it.hasNext() && rows.size() < 100) {
+                Map.Entry<Long, long[]> entry = it.next();
+                rows.add(Map.of("id", entry.getKey(), "product_id", entry.getValue()[0], "delta", entry.getValue()[1]));
+                it.remove();
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.ecommerce.user.availability;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 用户名 / 邮箱占用索引
+ * <p>
+ * 启动时从 users 表加载所有用户名和邮箱到布隆过滤器，注册成功后增量添加，并通过 Redis 频道同步到其他副本。
+ * 过滤器判定“不存在”即可确定未被占用，无需访问数据库；判定“可能存在”时由调用方回查数据库。
+ * 加载完成前一律视为“可能存在”。
+ */
+@Slf4j
+@Component
+public class UserAvailabilityIndex implements MessageListener {
+    
+    /**
+     * 新注册用户广播频道
+     */
+    public static final String REGISTERED_CHANNEL = "user:registered";
+    
+    private static final String USERNAME_PREFIX = "u:";
+    private static final String EMAIL_PREFIX = "e:";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Value("${user.availability.expected-insertions:1000000}")
+    private long expectedInsertions;
+    
+    @Value("${user.availability.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    
+    private volatile BloomFilter usernames;
+    
+    private volatile BloomFilter emails;
+    
+    private volatile boolean ready = false;
+    
+    /**
+     * 应用启动后在后台加载
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Thread thread = new Thread(this::load, "user-availability-load");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * 从数据库全量加载
+     */
+    public void load() {
+        long start = System.currentTimeMillis();
+        // 先创建过滤器再加载，加载期间的新注册也会写入，避免遗漏
+        usernames = new BloomFilter(expectedInsertions, falsePositiveRate);
+        emails = new BloomFilter(expectedInsertions, falsePositiveRate);
+        long[] count = {0};
+        jdbcTemplate.query("SELECT username, email FROM users", rs -> {
+            usernames.put(rs.getString(1));
+            emails.put(rs.getString(2));
+            count[0]++;
+        });
+        ready = true;
+        log.info("用户名/邮箱占用索引加载完成, 用户数: {}, 耗时: {}ms", count[0], System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * 用户名可能已被占用
+     */
+    public boolean mightContainUsername(String username) {
+        return !ready || usernames.mightContain(username);
+    }
+    
+    /**
+     * 邮箱可能已被占用
+     */
+    public boolean mightContainEmail(String email) {
+        return !ready || emails.mightContain(email);
+    }
+    
+    /**
+     * 记录新注册的用户名和邮箱，并通知其他副本
+     */
+    public void add(String username, String email) {
+        addLocal(username, email);
+        try {
+            redisTemplate.convertAndSend(REGISTERED_CHANNEL, USERNAME_PREFIX + username);
+            redisTemplate.convertAndSend(REGISTERED_CHANNEL, EMAIL_PREFIX + email);
+        } catch (Exception e) {
+            log.warn("广播新注册用户失败: {}, {}", username, e.getMessage());
+        }
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (body.startsWith(USERNAME_PREFIX)) {
+            addLocal(body.substring(USERNAME_PREFIX.length()), null);
+        } else if (body.startsWith(EMAIL_PREFIX)) {
+            addLocal(null, body.substring(EMAIL_PREFIX.length()));
+        }
+    }
+    
+    private void addLocal(String username, String email) {
+        BloomFilter currentUsernames = usernames;
+        BloomFilter currentEmails = emails;
+        if (username != null && currentUsernames != null) {
+            currentUsernames.put(username);
+        }
+        if (email != null && currentEmails != null) {
+            currentEmails.put(email);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.ecommerce.user.cache;
+
+import com.ecommerce.common.cache.TwoLevelCache;
+import com.ecommerce.user.dto.UserDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 用户信息二级缓存
+ * <p>
+ * L1 为进程内 Caffeine 缓存，L2 为 Redis，按用户 ID 缓存 {@link UserDto}（不含密码哈希）。
+ * 另维护用户名到用户 ID 的索引；用户名注册后不可修改，索引无需失效，按用户名查询时先经索引取到 ID，
+ * 再走按 ID 的缓存。
+ */
+@Slf4j
+@Component
+public class UserCache extends TwoLevelCache<UserDto> {
+    
+    /**
+     * 缓存失效广播频道
+     */
+    public static final String EVICT_CHANNEL = "user:cache:evict";
+    
+    private static final String USERNAME_KEY_PREFIX = "user:name:";
+    
+    @Value("${user.cache.local.max-size:10000}")
+    private long localMaxSize;
+    
+    @Value("${user.cache.local.ttl:60s}")
+    private Duration localTtl;
+    
+    @Value("${user.cache.redis.ttl:30m}")
+    private Duration redisTtl;
+    
+    private Cache<String, Long> localUsernameIndex;
+    
+    public UserCache() {
+        super("user", "user:profile:", EVICT_CHANNEL, UserDto.class);
+    }
+    
+    @PostConstruct
+    public void init() {
+        configure(localMaxSize, localTtl, redisTtl);
+        localUsernameIndex = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .build();
+    }
+    
+    /**
+     * 按用户名查询用户 ID 索引，未命中返回 null
+     */
+    public Long getUserId(String username) {
+        Long userId = localUsernameIndex.getIfPresent(username);
+        if (userId != null) {
+            return userId;
+        }
+        try {
+            String value = redisTemplate.opsForValue().get(USERNAME_KEY_PREFIX + username);
+            if (value != null) {
+                userId = Long.valueOf(value);
+                localUsernameIndex.put(username, userId);
+            }
+        } catch (Exception e) {
+            log.warn("读取用户名索引失败: {}, {}", username, e.getMessage());
+        }
+        return userId;
+    }
+    
+    /**
+     * 写入用户名索引
+     */
+    public void putUserId(String username, Long userId) {
+        localUsernameIndex.put(username, userId);
+        try {
+            redisTemplate.opsForValue().set(USERNAME_KEY_PREFIX + username, String.valueOf(userId), redisTtl);
+        } catch (Exception e) {
+            log.warn("写入用户名索引失败: {}, {}", username, e.getMessage());
+        }
+    }
+    
+    @Override
+    protected Long idOf(UserDto userDto) {
+        return userDto.getId();
+    }
+    
+    @Override
+    protected void afterPut(UserDto userDto) {
+        putUserId(userDto.getUsername(), userDto.getId());
+    }
+}
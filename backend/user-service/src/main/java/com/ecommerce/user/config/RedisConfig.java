@@ -0,0 +1,32 @@
+package com.ecommerce.user.config;
+
+import com.ecommerce.common.util.TokenRevocationList;
+import com.ecommerce.user.availability.UserAvailabilityIndex;
+import com.ecommerce.user.cache.UserCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Redis 配置
+ */
+@Configuration
+public class RedisConfig {
+    
+    /**
+     * 订阅新注册用户频道、用户缓存失效频道与 Token 吊销频道
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(
+            RedisConnectionFactory connectionFactory, UserAvailabilityIndex userAvailabilityIndex,
+            UserCache userCache, TokenRevocationList tokenRevocationList) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(userAvailabilityIndex, new ChannelTopic(UserAvailabilityIndex.REGISTERED_CHANNEL));
+        container.addMessageListener(userCache, new ChannelTopic(UserCache.EVICT_CHANNEL));
+        container.addMessageListener(tokenRevocationList, new ChannelTopic(TokenRevocationList.REVOKE_CHANNEL));
+        return container;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.user.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -18,12 +19,18 @@ import java.util.Arrays;
 //@EnableWebSecurity
 public class SecurityConfig {
     
+    /**
+     * BCrypt 计算强度，调整后旧哈希会在用户下次登录时自动升级
+     */
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+    
     /**
      * 密码编码器
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
 //    @Bean
@@ -1,17 +1,24 @@
 package com.ecommerce.user.controller;
 
 import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.common.dto.TokenPrincipal;
+import com.ecommerce.common.ratelimit.RateLimit;
+import com.ecommerce.common.util.CurrentUserResolver;
 import com.ecommerce.common.util.JwtUtil;
+import com.ecommerce.user.dto.AvailabilityResponse;
 import com.ecommerce.user.dto.LoginRequest;
 import com.ecommerce.user.dto.LoginResponse;
 import com.ecommerce.user.dto.RegisterRequest;
 import com.ecommerce.user.dto.UserDto;
 import com.ecommerce.user.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 /**
  * 用户控制器
  */
@@ -28,49 +35,77 @@ UserController {
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private CurrentUserResolver currentUserResolver;
+    
     /**
      * 用户注册
      */
     @PostMapping("/register")
+    @RateLimit(name = "user.register", key = "#ip", permits = 10, periodSeconds = 3600,
+            mode = RateLimit.Mode.DISTRIBUTED)
     public ResponseEntity<ApiResponse<UserDto>> register(@RequestBody RegisterRequest request) {
         log.info("用户注册请求: {}", request.getUsername());
-        UserDto userDto = new UserDto();
-        try {
-            userDto  = userService.register(request);
-        }catch (Exception e) {
-          e.printStackTrace();
-        };
+        UserDto userDto = userService.register(request);
         return ResponseEntity.ok(ApiResponse.success("注册成功", userDto));
     }
     
+    /**
+     * 查询用户名 / 邮箱是否可用（注册页实时校验）
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<ApiResponse<AvailabilityResponse>> checkAvailability(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email) {
+        AvailabilityResponse response = userService.checkAvailability(username, email);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+    
     /**
      * 用户登录
      */
     @PostMapping("/login")
+    @RateLimit(name = "user.login.ip", key = "#ip", permits = 30, periodSeconds = 60)
+    @RateLimit(name = "user.login.username", key = "#request.username", permits = 10, periodSeconds = 300,
+            mode = RateLimit.Mode.DISTRIBUTED)
     public ResponseEntity<ApiResponse<LoginResponse>> login(@RequestBody LoginRequest request) {
         log.info("用户登录请求: {}", request.getUsername());
         LoginResponse response = userService.login(request);
         return ResponseEntity.ok(ApiResponse.success("登录成功", response));
     }
     
+    /**
+     * 发布 Token 验签公钥（RS256 模式），供网关等验签方拉取
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public Map<String, Object> jwks() {
+        return jwtUtil.getJwks();
+    }
+    
+    /**
+     * 用户登出，吊销当前 Token
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            jwtUtil.revoke(authHeader.substring(7));
+        }
+        return ResponseEntity.ok(ApiResponse.success("登出成功", null));
+    }
+    
     /**
      * 获取当前用户信息
      */
     @GetMapping("/me")
-    public ResponseEntity<ApiResponse<UserDto>> getCurrentUser(
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+    public ResponseEntity<ApiResponse<UserDto>> getCurrentUser(HttpServletRequest request) {
         
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        TokenPrincipal principal = currentUserResolver.resolve(request);
+        if (principal == null) {
             return ResponseEntity.ok(ApiResponse.fail(401, "未授权"));
         }
         
-        String token = authHeader.substring(7);
-        if (!jwtUtil.validateToken(token)) {
-            return ResponseEntity.ok(ApiResponse.fail(401, "Token 无效"));
-        }
-        
-        Long userId = jwtUtil.getUserIdFromToken(token);
-        UserDto userDto = userService.getUserById(userId);
+        UserDto userDto = userService.getUserById(principal.getUserId());
         return ResponseEntity.ok(ApiResponse.success(userDto));
     }
     
@@ -90,19 +125,14 @@ UserController {
     public ResponseEntity<ApiResponse<UserDto>> updateUser(
             @PathVariable Long userId,
             @RequestBody UserDto userDto,
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+            HttpServletRequest request) {
         
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        TokenPrincipal principal = currentUserResolver.resolve(request);
+        if (principal == null) {
             return ResponseEntity.ok(ApiResponse.fail(401, "未授权"));
         }
         
-        String token = authHeader.substring(7);
-        if (!jwtUtil.validateToken(token)) {
-            return ResponseEntity.ok(ApiResponse.fail(401, "Token 无效"));
-        }
-        
-        Long currentUserId = jwtUtil.getUserIdFromToken(token);
-        if (!currentUserId.equals(userId)) {
+        if (!principal.getUserId().equals(userId)) {
             return ResponseEntity.ok(ApiResponse.fail(403, "无权限修改他人信息"));
         }
         
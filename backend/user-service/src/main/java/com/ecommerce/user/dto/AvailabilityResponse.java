@@ -0,0 +1,26 @@
+package com.ecommerce.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 用户名 / 邮箱可用性查询响应 DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityResponse {
+    
+    /**
+     * 用户名是否可用（未查询时为 null）
+     */
+    private Boolean usernameAvailable;
+    
+    /**
+     * 邮箱是否可用（未查询时为 null）
+     */
+    private Boolean emailAvailable;
+}
@@ -0,0 +1,178 @@
+package com.ecommerce.user.security;
+
+import com.ecommerce.common.exception.BusinessException;
+import com.ecommerce.common.timing.RequestTiming;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 密码哈希执行器
+ * <p>
+ * BCrypt 是纯 CPU 计算，放在与 CPU 核数相同的专用线程池中执行，队列有界；
+ * 队列满时直接返回 429，避免登录高峰占满 Tomcat 线程和 CPU，拖垮同进程内的其他接口。
+ */
+@Slf4j
+@Component
+public class PasswordHasher {
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${security.password.pool-size:0}")
+    private int poolSize;
+    
+    @Value("${security.password.queue-capacity:64}")
+    private int queueCapacity;
+    
+    @Value("${security.password.timeout:5s}")
+    private Duration timeout;
+    
+    private ThreadPoolExecutor executor;
+    
+    private Timer encodeTimer;
+    
+    private Timer matchesTimer;
+    
+    private Counter rejectedCounter;
+    
+    /**
+     * 以当前强度生成的占位哈希，用户不存在时用于校验，使登录耗时与密码错误时一致
+     */
+    private String dummyHash;
+    
+    @PostConstruct
+    public void init() {
+        dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger index = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        
+        Gauge.builder("password.hash.queue.size", executor, e -> e.getQueue().size())
+                .description("等待执行的密码哈希任务数")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在执行的密码哈希任务数")
+                .register(meterRegistry);
+        encodeTimer = Timer.builder("password.hash.duration").tag("operation", "encode")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        matchesTimer = Timer.builder("password.hash.duration").tag("operation", "matches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("password.hash.rejected")
+                .description("因队列已满被拒绝的密码哈希任务数")
+                .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+    
+    /**
+     * 计算密码哈希
+     */
+    public String encode(String rawPassword) {
+        return execute(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+    
+    /**
+     * 校验密码
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(() -> matchesTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+    
+    /**
+     * 对占位哈希做一次校验，结果丢弃；用于用户不存在的登录请求，避免通过响应耗时探测用户名是否存在
+     */
+    public void matchesDummy(String rawPassword) {
+        matches(rawPassword, dummyHash);
+    }
+    
+    /**
+     * 已有哈希的强度是否低于当前配置，需要重新计算
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+    
+    /**
+     * 在后台重新计算哈希，不阻塞当前请求；队列已满时放弃，下次登录再试
+     */
+    public void encodeAsync(String rawPassword, Consumer<String> callback) {
+        try {
+            executor.execute(() -> {
+                try {
+                    callback.accept(encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+                } catch (Exception e) {
+                    log.warn("密码重新哈希失败: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+        }
+    }
+    
+    private <T> T execute(Callable<T> task) {
+        long start = System.nanoTime();
+        try {
+            return submitAndWait(task);
+        } finally {
+            RequestTiming.record(RequestTiming.HASH, System.nanoTime() - start);
+        }
+    }
+    
+    private <T> T submitAndWait(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new BusinessException(429, "系统繁忙，请稍后重试");
+        }
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new BusinessException(503, "密码校验超时，请稍后重试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(503, "请求被中断");
+        } catch (ExecutionException e) {
+            throw new BusinessException(500, "密码处理失败", e.getCause());
+        }
+    }
+}
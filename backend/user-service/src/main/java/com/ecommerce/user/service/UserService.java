@@ -1,5 +1,6 @@
 package com.ecommerce.user.service;
 
+import com.ecommerce.user.dto.AvailabilityResponse;
 import com.ecommerce.user.dto.LoginRequest;
 import com.ecommerce.user.dto.LoginResponse;
 import com.ecommerce.user.dto.RegisterRequest;
@@ -40,4 +41,9 @@ public interface UserService {
      * 根据 ID 获取用户实体
      */
     User getUserEntityById(Long userId);
+    
+    /**
+     * 查询用户名 / 邮箱是否可用（参数为 null 时不查询对应项）
+     */
+    AvailabilityResponse checkAvailability(String username, String email);
 }
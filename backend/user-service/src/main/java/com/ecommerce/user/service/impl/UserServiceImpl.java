@@ -2,18 +2,23 @@ package com.ecommerce.user.service.impl;
 
 import com.ecommerce.common.exception.BusinessException;
 import com.ecommerce.common.util.JwtUtil;
+import com.ecommerce.user.availability.UserAvailabilityIndex;
+import com.ecommerce.user.cache.UserCache;
+import com.ecommerce.user.dto.AvailabilityResponse;
 import com.ecommerce.user.dto.LoginRequest;
 import com.ecommerce.user.dto.LoginResponse;
 import com.ecommerce.user.dto.RegisterRequest;
 import com.ecommerce.user.dto.UserDto;
 import com.ecommerce.user.entity.User;
 import com.ecommerce.user.repository.UserRepository;
+import com.ecommerce.user.security.PasswordHasher;
 import com.ecommerce.user.service.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -28,23 +33,38 @@ public class UserServiceImpl implements UserService {
     private UserRepository userRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
     
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private UserAvailabilityIndex userAvailabilityIndex;
+    
+    @Autowired
+    private UserCache userCache;
+    
     @Value("${jwt.expiration:86400000}")
     private Long expiration;
     
+    /**
+     * 不开启外层事务，避免在等待密码哈希期间占用数据库连接；save 自带事务
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserDto register(RegisterRequest request) {
-        // 检查用户名是否存在
-        if (userRepository.existsByUsername(request.getUsername())) {
+        requireText(request.getUsername(), "用户名不能为空");
+        requireText(request.getEmail(), "邮箱不能为空");
+        requireText(request.getPassword(), "密码不能为空");
+        
+        // 布隆过滤器判定不存在时跳过数据库检查，唯一约束兜底
+        if (userAvailabilityIndex.mightContainUsername(request.getUsername())
+                && userRepository.existsByUsername(request.getUsername())) {
             throw new BusinessException(400, "用户名已存在");
         }
         
-        // 检查邮箱是否存在
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (userAvailabilityIndex.mightContainEmail(request.getEmail())
+                && userRepository.existsByEmail(request.getEmail())) {
             throw new BusinessException(400, "邮箱已存在");
         }
         
@@ -57,28 +77,52 @@ public class UserServiceImpl implements UserService {
         User user = User.builder()
                 .username(request.getUsername())
                 .email(request.getEmail())
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
+                .passwordHash(passwordHasher.encode(request.getPassword()))
                 .phone(request.getPhone())
                 .realName(request.getRealName())
                 .build();
         
-        user = userRepository.save(user);
+        try {
+            user = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // 并发注册同名用户时由唯一约束拦截
+            if (userRepository.existsByUsername(request.getUsername())) {
+                throw new BusinessException(400, "用户名已存在");
+            }
+            throw new BusinessException(400, "邮箱已存在");
+        }
+        userAvailabilityIndex.add(user.getUsername(), user.getEmail());
         log.info("用户注册成功: {}", user.getUsername());
         
         return convertToDto(user);
     }
     
+    /**
+     * 不开启外层事务，避免在等待密码校验期间占用数据库连接
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public LoginResponse login(LoginRequest request) {
-        // 查询用户
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new BusinessException(401, "用户名或密码错误"));
+        // 查询用户，不存在时同样执行一次密码哈希，使响应耗时与密码错误时一致
+        User user = userRepository.findByUsername(request.getUsername()).orElse(null);
+        if (user == null) {
+            passwordHasher.matchesDummy(request.getPassword());
+            throw new BusinessException(401, "用户名或密码错误");
+        }
         
         // 验证密码
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
+        if (!passwordHasher.matches(request.getPassword(), user.getPasswordHash())) {
             throw new BusinessException(401, "用户名或密码错误");
         }
         
+        // 哈希强度低于当前配置时在后台重新计算
+        if (passwordHasher.upgradeEncoding(user.getPasswordHash())) {
+            Long userId = user.getId();
+            String oldHash = user.getPasswordHash();
+            passwordHasher.encodeAsync(request.getPassword(),
+                    newHash -> userRepository.updatePasswordHash(userId, oldHash, newHash));
+        }
+        
         // 检查用户状态
         if (!"active".equals(user.getStatus())) {
             throw new BusinessException(403, "用户已被禁用");
@@ -101,15 +145,21 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public UserDto getUserById(Long userId) {
-        User user = getUserEntityById(userId);
-        return convertToDto(user);
+        return userCache.getOrLoad(userId, () -> convertToDto(getUserEntityById(userId)));
     }
     
     @Override
     @Transactional(readOnly = true)
     public UserDto getUserByUsername(String username) {
+        Long userId = userCache.getUserId(username);
+        if (userId != null) {
+            return getUserById(userId);
+        }
+        
+        // 用户 ID 未知时无法在查询前取到缓存版本号，只写入用户名索引，资料由之后按 ID 的查询回填
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new BusinessException(404, "用户不存在"));
+        userCache.putUserId(username, user.getId());
         return convertToDto(user);
     }
     
@@ -128,6 +178,7 @@ public class UserServiceImpl implements UserService {
         }
         
         user = userRepository.save(user);
+        userCache.evict(userId);
         log.info("用户信息更新成功: {}", user.getUsername());
         
         return convertToDto(user);
@@ -140,6 +191,41 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new BusinessException(404, "用户不存在"));
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public AvailabilityResponse checkAvailability(String username, String email) {
+        if (username == null && email == null) {
+            throw new BusinessException(400, "请提供用户名或邮箱");
+        }
+        if (username != null) {
+            requireText(username, "用户名不能为空");
+        }
+        if (email != null) {
+            requireText(email, "邮箱不能为空");
+        }
+        
+        Boolean usernameAvailable = null;
+        if (username != null) {
+            usernameAvailable = !userAvailabilityIndex.mightContainUsername(username)
+                    || !userRepository.existsByUsername(username);
+        }
+        Boolean emailAvailable = null;
+        if (email != null) {
+            emailAvailable = !userAvailabilityIndex.mightContainEmail(email)
+                    || !userRepository.existsByEmail(email);
+        }
+        return AvailabilityResponse.builder()
+                .usernameAvailable(usernameAvailable)
+                .emailAvailable(emailAvailable)
+                .build();
+    }
+    
+    private static void requireText(String value, String message) {
+        if (value == null || value.isBlank()) {
+            throw new BusinessException(400, message);
+        }
+    }
+    
     /**
      * 将用户实体转换为 DTO
      */
@@ -0,0 +1,56 @@
+package com.ecommerce.user.availability;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 布隆过滤器：无漏判，误判率在期望值附近
+ */
+class BloomFilterTest {
+
+    private static final int INSERTIONS = 10_000;
+
+    private static final int PROBES = 100_000;
+
+    @Test
+    void neverReportsInsertedValueAsAbsent() {
+        BloomFilter filter = filled(0.01);
+
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertThat(filter.mightContain("user" + i)).as("user%d", i).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearConfiguredRate() {
+        assertThat(falsePositiveRate(filled(0.01))).isLessThan(0.02);
+        assertThat(falsePositiveRate(filled(0.001))).isLessThan(0.002);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+
+        assertThat(filter.mightContain("user0")).isFalse();
+        assertThat(filter.mightContain("")).isFalse();
+    }
+
+    private static BloomFilter filled(double falsePositiveRate) {
+        BloomFilter filter = new BloomFilter(INSERTIONS, falsePositiveRate);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.put("user" + i);
+        }
+        return filter;
+    }
+
+    private static double falsePositiveRate(BloomFilter filter) {
+        int hits = 0;
+        for (int i = 0; i < PROBES; i++) {
+            if (filter.mightContain("absent" + i + "@example.com")) {
+                hits++;
+            }
+        }
+        return (double) hits / PROBES;
+    }
+}
@@ -53,9 +53,31 @@ CREATE TABLE products (
     deleted_at TIMESTAMP
 );
 
+-- 商品 ID 由 Hibernate pooled 优化器按 50 预分配，序列步长需保持一致
+ALTER SEQUENCE products_id_seq INCREMENT BY 50;
+
 CREATE INDEX idx_products_category_id ON products(category_id);
 CREATE INDEX idx_products_status ON products(status);
 CREATE INDEX idx_products_name ON products(name);
+CREATE INDEX idx_products_created_at_id ON products(created_at DESC, id DESC);
+CREATE INDEX idx_products_category_created_at_id ON products(category_id, created_at DESC, id DESC);
+
+-- 创建秒杀库存刷写日志表
+CREATE TABLE stock_flush_log (
+    product_id BIGINT NOT NULL,
+    seq BIGINT NOT NULL,
+    delta INT NOT NULL,
+    flushed_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (product_id, seq)
+);
+
+-- 创建秒杀库存补偿日志表（事务回滚后撤销预占失败的记录，由刷写任务重放）
+CREATE TABLE stock_compensation_log (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    delta INT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
 
 -- 连接到订单数据库
 \c ecommerce_order;
@@ -0,0 +1,31 @@
+-- 商品库升级脚本
+--
+-- init-db.sql 只在数据库首次创建时执行。对在此之前已初始化的 ecommerce_product 库，
+-- 部署新版本商品服务之前先执行本脚本，否则 Hibernate 启动时会因序列步长与 allocationSize 不一致而失败。
+-- 脚本可重复执行。
+--
+-- 用法: psql -h <host> -U postgres -d ecommerce_product -f docker/migrations/001_product_schema.sql
+
+-- 商品 ID 由 Hibernate pooled 优化器按 50 预分配，序列步长需保持一致
+ALTER SEQUENCE products_id_seq INCREMENT BY 50;
+
+-- 游标分页使用的索引
+CREATE INDEX IF NOT EXISTS idx_products_created_at_id ON products(created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_products_category_created_at_id ON products(category_id, created_at DESC, id DESC);
+
+-- 秒杀库存刷写日志表
+CREATE TABLE IF NOT EXISTS stock_flush_log (
+    product_id BIGINT NOT NULL,
+    seq BIGINT NOT NULL,
+    delta INT NOT NULL,
+    flushed_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (product_id, seq)
+);
+
+-- 秒杀库存补偿日志表（事务回滚后撤销预占失败的记录，由刷写任务重放）
+CREATE TABLE IF NOT EXISTS stock_compensation_log (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    delta INT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
@@ -13,6 +13,19 @@ export interface ProductDto {
   updatedAt?: string
 }
 
+export interface ProductSummaryDto {
+  id: number
+  name: string
+  summary?: string
+  categoryId: number
+  price: number
+  stockQuantity?: number
+  status?: string
+  imageUrl?: string
+  createdAt?: string
+  updatedAt?: string
+}
+
 export interface PaginatedResponse<T> {
   content: T[]
   totalElements: number
@@ -21,6 +34,13 @@ export interface PaginatedResponse<T> {
   pageSize: number
 }
 
+export interface CursorPage<T> {
+  content: T[]
+  nextCursor?: string
+  hasMore: boolean
+  size: number
+}
+
 /**
  * 创建商品
  */
@@ -35,19 +55,37 @@ export const getProduct = (productId: number): Promise<ProductDto> => {
   return http.get(`/products/${productId}`)
 }
 
+/**
+ * 批量获取商品详情（与 ids 顺序一致，不存在的商品为 null）
+ */
+export const getProductsByIds = (ids: number[]): Promise<(ProductDto | null)[]> => {
+  return http.get('/products/batch', {
+    params: { ids: ids.join(',') },
+  })
+}
+
 /**
  * 分页获取所有商品
  */
-export const getAllProducts = (page: number = 0, size: number = 10): Promise<PaginatedResponse<ProductDto>> => {
+export const getAllProducts = (page: number = 0, size: number = 10): Promise<PaginatedResponse<ProductSummaryDto>> => {
   return http.get('/products', {
     params: { page, size },
   })
 }
 
+/**
+ * 游标分页获取所有商品
+ */
+export const getAllProductsByCursor = (cursor?: string, size: number = 10): Promise<CursorPage<ProductSummaryDto>> => {
+  return http.get('/products/cursor', {
+    params: { cursor, size },
+  })
+}
+
 /**
  * 根据分类获取商品
  */
-export const getProductsByCategory = (categoryId: number, page: number = 0, size: number = 10): Promise<PaginatedResponse<ProductDto>> => {
+export const getProductsByCategory = (categoryId: number, page: number = 0, size: number = 10): Promise<PaginatedResponse<ProductSummaryDto>> => {
   return http.get(`/products/category/${categoryId}`, {
     params: { page, size },
   })
@@ -56,7 +94,7 @@ export const getProductsByCategory = (categoryId: number, page: number = 0, size
 /**
  * 搜索商品
  */
-export const searchProducts = (keyword: string, page: number = 0, size: number = 10): Promise<PaginatedResponse<ProductDto>> => {
+export const searchProducts = (keyword: string, page: number = 0, size: number = 10): Promise<PaginatedResponse<ProductSummaryDto>> => {
   return http.get('/products/search', {
     params: { keyword, page, size },
   })
@@ -48,6 +48,17 @@ export const register = (data: RegisterRequest): Promise<usersInfo> => {
   return http.post('/users/register', data)
 }
 
+/**
+ * 用户登出（吊销当前 Token）
+ *
+ * 显式携带 Token：调用方随后会清空本地存储，拦截器执行时可能已读不到
+ */
+export const logout = (token: string): Promise<void> => {
+  return http.post('/users/logout', null, {
+    headers: { Authorization: `Bearer ${token}` },
+  })
+}
+
 /**
  * 获取当前用户信息
  */
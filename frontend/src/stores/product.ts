@@ -3,7 +3,7 @@ import { ref } from 'vue'
 import * as productApi from '@/api/product'
 
 export const useProductStore = defineStore('product', () => {
-  const products = ref<productApi.ProductDto[]>([])
+  const products = ref<productApi.ProductSummaryDto[]>([])
   const currentProduct = ref<productApi.ProductDto | null>(null)
   const total = ref(0)
 
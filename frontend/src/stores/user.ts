@@ -79,6 +79,10 @@ export const useUserStore = defineStore('user', () => {
    * 登出
    */
   const logout = () => {
+    // 通知服务端吊销 Token，失败不影响本地登出
+    if (token.value) {
+      userApi.logout(token.value).catch(() => {})
+    }
     user.value = null
     token.value = ''
     localStorage.removeItem('token')
@@ -0,0 +1,86 @@
+#!/bin/bash
+
+# 电商微服务平台 - 商品目录读接口压测对比（阻塞 product-service vs 非阻塞 catalog-service）
+#
+# 以相同的请求数与并发数分别压测两条读路径，压测过程中每秒采样一次线程数与数据库连接占用，
+# 输出吞吐量、延迟分位数，以及折算到每 1k RPS 的线程数与连接数峰值。
+#
+# 用法: scripts/bench-catalog.sh [主机] [请求数] [并发数] [列表条数]
+#   直连两个服务的调试端口（product-service 8082，catalog-service 8083），不经过网关
+
+set -e
+
+if ! command -v ab &> /dev/null; then
+    echo "❌ ab 未安装，请先安装 apache2-utils / httpd-tools"
+    exit 1
+fi
+
+HOST=${1:-localhost}
+REQUESTS=${2:-20000}
+CONCURRENCY=${3:-500}
+LIMIT=${4:-20}
+
+BLOCKING_BASE=http://$HOST:8082/api/product
+REACTIVE_BASE=http://$HOST:8083
+
+metric() {
+    curl -s "$1/actuator/metrics/$2" \
+        | sed -E 's/.*"statistic":"VALUE","value":([0-9.E+-]+).*/\1/'
+}
+
+# 压测期间每秒采样，记录各指标的峰值
+sample() {
+    local base=$1 connections_metric=$2 out=$3
+    local max_threads=0 max_connections=0
+    while [ -f "$out.running" ]; do
+        threads=$(metric "$base" jvm.threads.live)
+        connections=$(metric "$base" "$connections_metric")
+        max_threads=$(awk -v a="$max_threads" -v b="${threads:-0}" 'BEGIN { print (b > a ? b : a) }')
+        max_connections=$(awk -v a="$max_connections" -v b="${connections:-0}" 'BEGIN { print (b > a ? b : a) }')
+        echo "$max_threads $max_connections" > "$out"
+        sleep 1
+    done
+}
+
+run() {
+    local label=$1 base=$2 path=$3 connections_metric=$4
+    local url=$base$path
+    local out
+    out=$(mktemp)
+
+    echo ""
+    echo "=========================================="
+    echo "$label: $url"
+    echo "=========================================="
+
+    # 预热
+    ab -q -k -n 2000 -c 50 "$url" > /dev/null
+
+    touch "$out.running"
+    sample "$base" "$connections_metric" "$out" &
+    local sampler=$!
+    result=$(ab -q -k -n "$REQUESTS" -c "$CONCURRENCY" "$url")
+    rm -f "$out.running"
+    wait $sampler
+
+    echo "$result" | grep -E "Requests per second|Non-2xx|Failed requests|50%|99%"
+
+    rps=$(echo "$result" | awk '/Requests per second/ { print $4 }')
+    read -r max_threads max_connections < "$out"
+    rm -f "$out"
+    echo "  峰值线程数:   $max_threads"
+    echo "  峰值连接占用: $max_connections ($connections_metric)"
+    awk -v t="$max_threads" -v c="$max_connections" -v r="$rps" 'BEGIN {
+        printf "  每 1k RPS:    线程 %.1f, 连接 %.1f\n", t * 1000 / r, c * 1000 / r
+    }'
+}
+
+echo "请求 $REQUESTS, 并发 $CONCURRENCY, 每次列表 $LIMIT 条"
+
+run "阻塞 (Spring MVC + JPA)" "$BLOCKING_BASE" \
+    "/api/products/cursor?size=$LIMIT" hikaricp.connections.active
+run "非阻塞 (WebFlux + R2DBC)" "$REACTIVE_BASE" \
+    "/api/catalog/products?limit=$LIMIT" r2dbc.pool.acquired
+
+echo ""
+echo "✅ 压测完成"
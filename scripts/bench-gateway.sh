@@ -0,0 +1,50 @@
+#!/bin/bash
+
+# 电商微服务平台 - 网关附加延迟压测脚本
+#
+# 用同一个 Token 分别直连用户服务和经由网关请求 /api/users/me，
+# 比较两者的 p50 / p99，差值即网关（路由 + 边缘验签 + 身份转发）带来的附加延迟。
+#
+# 用法: scripts/bench-gateway.sh <Token> [请求数] [并发数]
+#
+# Token 可通过登录接口获取；直连时用户服务需关闭 security.gateway.trust-identity-headers
+# 或保证 Token 有效（退回到服务内验签）。
+
+set -e
+
+if ! command -v ab &> /dev/null; then
+    echo "❌ ab 未安装，请先安装 apache2-utils / httpd-tools"
+    exit 1
+fi
+
+if [ $# -lt 1 ]; then
+    echo "用法: $0 <Token> [请求数] [并发数]"
+    exit 1
+fi
+
+TOKEN=$1
+REQUESTS=${2:-20000}
+CONCURRENCY=${3:-100}
+DIRECT_URL=${DIRECT_URL:-http://localhost:8081/api/users/me}
+GATEWAY_URL=${GATEWAY_URL:-http://localhost:8080/api/users/me}
+
+run() {
+    local label=$1
+    local url=$2
+    echo ""
+    echo "🔥 $label ($url, 请求 $REQUESTS, 并发 $CONCURRENCY)"
+    # 预热，让 JIT、连接池与 Token 缓存进入稳定状态
+    ab -q -k -n 2000 -c "$CONCURRENCY" -H "Authorization: Bearer $TOKEN" "$url" > /dev/null
+    ab -q -k -n "$REQUESTS" -c "$CONCURRENCY" -H "Authorization: Bearer $TOKEN" "$url" \
+        | grep -E "Requests per second|Non-2xx|Failed requests|50%|99%"
+}
+
+echo "=========================================="
+echo "网关附加延迟压测"
+echo "=========================================="
+
+run "直连用户服务" "$DIRECT_URL"
+run "经由网关" "$GATEWAY_URL"
+
+echo ""
+echo "📈 网关验签耗时分位数: ${GATEWAY_URL%%/api/*}/actuator/metrics/gateway.auth.verify"
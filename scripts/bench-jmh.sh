@@ -0,0 +1,21 @@
+#!/bin/bash
+
+# 电商微服务平台 - JMH 基准
+#
+# 构建 benchmarks 模块并运行基准，每个基准同时输出吞吐量与分配速率（GC 分析器）。
+# 只依赖本地 Maven 仓库与 JDK，不需要数据库、Redis 等外部服务。
+#
+# 用法: scripts/bench-jmh.sh [JMH 参数...]
+#   scripts/bench-jmh.sh                      # 全部基准
+#   scripts/bench-jmh.sh Jwt                  # 只跑名称匹配 Jwt 的基准
+#   scripts/bench-jmh.sh -rf json -rff base.json   # 结果保存为 JSON，作为对比基线
+
+set -e
+
+cd "$(dirname "$0")/../backend"
+
+echo "🔨 构建 benchmarks 模块..."
+mvn -q -o -Pbenchmarks -pl benchmarks -am package -DskipTests
+
+echo "🚀 运行基准..."
+java -jar benchmarks/target/benchmarks.jar "$@"
@@ -0,0 +1,45 @@
+#!/bin/bash
+
+# 电商微服务平台 - 库存扣减压测脚本
+#
+# 对同一个 SKU 并发发起库存扣减，比较普通商品（数据库条件更新）与
+# 秒杀热点商品（product.flash-sale.hot-product-ids 中配置的商品）的每秒扣减次数。
+#
+# 用法: scripts/bench-stock.sh <普通商品ID> <热点商品ID> [请求数] [并发数]
+#
+# 压测前请保证两个商品都有足够库存（不少于请求数）。
+
+set -e
+
+if ! command -v ab &> /dev/null; then
+    echo "❌ ab 未安装，请先安装 apache2-utils / httpd-tools"
+    exit 1
+fi
+
+if [ $# -lt 2 ]; then
+    echo "用法: $0 <普通商品ID> <热点商品ID> [请求数] [并发数]"
+    exit 1
+fi
+
+NORMAL_ID=$1
+HOT_ID=$2
+REQUESTS=${3:-20000}
+CONCURRENCY=${4:-200}
+BASE_URL=${BASE_URL:-http://localhost:8082/api/product/api/products}
+
+run() {
+    local label=$1
+    local product_id=$2
+    echo ""
+    echo "🔥 $label (商品 $product_id, 请求 $REQUESTS, 并发 $CONCURRENCY)"
+    ab -q -n "$REQUESTS" -c "$CONCURRENCY" -u /dev/null \
+        "$BASE_URL/$product_id/stock?quantity=-1" \
+        | grep -E "Requests per second|Failed requests|50%|99%"
+}
+
+echo "=========================================="
+echo "库存扣减压测"
+echo "=========================================="
+
+run "数据库条件更新" "$NORMAL_ID"
+run "秒杀库存引擎" "$HOT_ID"
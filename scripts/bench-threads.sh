@@ -0,0 +1,50 @@
+#!/bin/bash
+
+# 电商微服务平台 - 平台线程 / 虚拟线程模式压测对比
+#
+# 以高并发请求同一个读接口，输出吞吐量与延迟分位数，
+# 并从 Actuator 读取压测结束时的线程数、堆内存与连接池排队数。
+# 分别在 VIRTUAL_THREADS_ENABLED=false / true 下启动服务后各执行一次，详见 docs/virtual-threads.md。
+#
+# 用法: scripts/bench-threads.sh <标签> <接口URL> [请求数] [并发数]
+
+set -e
+
+if ! command -v ab &> /dev/null; then
+    echo "❌ ab 未安装，请先安装 apache2-utils / httpd-tools"
+    exit 1
+fi
+
+if [ $# -lt 2 ]; then
+    echo "用法: $0 <标签> <接口URL> [请求数] [并发数]"
+    exit 1
+fi
+
+LABEL=$1
+URL=$2
+REQUESTS=${3:-50000}
+CONCURRENCY=${4:-1000}
+# Actuator 地址：默认取接口 URL 的 scheme://host:port 加上商品服务的 context-path
+ACTUATOR_URL=${ACTUATOR_URL:-$(echo "$URL" | sed -E 's#^(https?://[^/]+).*#\1#')/api/product/actuator}
+
+metric() {
+    curl -s "$ACTUATOR_URL/metrics/$1${2:+?tag=$2}" \
+        | sed -E 's/.*"statistic":"VALUE","value":([0-9.E+-]+).*/\1/'
+}
+
+echo "=========================================="
+echo "执行模式压测: $LABEL"
+echo "=========================================="
+echo "接口: $URL (请求 $REQUESTS, 并发 $CONCURRENCY)"
+
+# 预热
+ab -q -k -n 5000 -c 100 "$URL" > /dev/null
+
+ab -q -k -n "$REQUESTS" -c "$CONCURRENCY" "$URL" \
+    | grep -E "Requests per second|Non-2xx|Failed requests|50%|90%|99%|100%"
+
+echo ""
+echo "📊 压测结束时:"
+echo "  平台线程数:        $(metric jvm.threads.live)"
+echo "  堆内存已用(字节):  $(metric jvm.memory.used area:heap)"
+echo "  连接池排队数:      $(metric hikaricp.connections.pending)"
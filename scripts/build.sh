@@ -73,6 +73,6 @@ echo "✅ 构建完成！"
 echo "=========================================="
 echo ""
 echo "📦 构建产物:"
-echo "  - 后端 JAR: backend/*/target/*.jar"
+echo "  - 后端可执行 JAR: backend/*/target/*-exec.jar"
 echo "  - 前端: frontend/dist/"
 echo ""
@@ -72,6 +72,14 @@ echo ""
 echo "🚀 部署商品服务..."
 kubectl apply -f kubernetes/product-service.yaml
 
+echo ""
+echo "🚀 部署商品目录服务..."
+kubectl apply -f kubernetes/catalog-service.yaml
+
+echo ""
+echo "🚀 部署 API 网关..."
+kubectl apply -f kubernetes/gateway-service.yaml
+
 # 部署前端
 echo ""
 echo "🌐 部署前端应用..."
@@ -87,6 +95,8 @@ echo ""
 echo "⏳ 等待部署完成..."
 kubectl rollout status deployment/user-service -n ecommerce --timeout=300s || true
 kubectl rollout status deployment/product-service -n ecommerce --timeout=300s || true
+kubectl rollout status deployment/catalog-service -n ecommerce --timeout=300s || true
+kubectl rollout status deployment/gateway-service -n ecommerce --timeout=300s || true
 kubectl rollout status deployment/frontend -n ecommerce --timeout=300s || true
 
 # 显示部署状态